@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @SpringBootApplication(scanBasePackages = {"com.netbanking.app", "com.banking.core"})
 @EnableJpaAuditing
 @EnableTransactionManagement
+@EnableScheduling
 @EnableJpaRepositories(basePackages = {"com.netbanking.app.repository", "com.banking.core.repository"})
 @EntityScan(basePackages = {"com.netbanking.app.entity", "com.banking.core.entity"})
 public class NetBankingApplication {
@@ -0,0 +1,125 @@
+package com.netbanking.app.cache;
+
+import com.banking.core.entity.Account;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Keeps {@link BalanceCache} and {@link AccountSummaryCache} in step with
+ * committed {@link Account} changes.
+ *
+ * Deposits, withdrawals and transfers go through the app services, but block,
+ * unblock and overdraft updates still run in banking-core, so this listens to
+ * Hibernate commit events to cover both. For balances, a change that only
+ * moved the balance is written through and anything else evicts the entry.
+ */
+@Component
+public class AccountCacheListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final Set<String> BALANCE_PROPERTIES = Set.of("balance", "updatedAt", "version");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final BalanceCache balanceCache;
+    private final AccountSummaryCache accountSummaryCache;
+
+    @Autowired
+    public AccountCacheListener(EntityManagerFactory entityManagerFactory, BalanceCache balanceCache,
+                                AccountSummaryCache accountSummaryCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.balanceCache = balanceCache;
+        this.accountSummaryCache = accountSummaryCache;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Account account) {
+            accountSummaryCache.apply(account.getUser().getId(), summaryRow(account));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Account account)) {
+            return;
+        }
+        if (onlyBalanceChanged(event)) {
+            balanceCache.update(account.getAccountNumber(),
+                    new BalanceSnapshot(account.getUser().getId(), account.getBalance(), account.getVersion()));
+        } else {
+            balanceCache.evict(account.getAccountNumber());
+        }
+        accountSummaryCache.apply(account.getUser().getId(), summaryRow(account));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Account account) {
+            balanceCache.evict(account.getAccountNumber());
+            accountSummaryCache.evict(account.getUser().getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, so the cached values are still accurate
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, so the cached values are still accurate
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, so the cached values are still accurate
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Account.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    private static AccountSummaryRow summaryRow(Account account) {
+        return new AccountSummaryRow(account.getId(), account.getAccountType(), account.getStatus(),
+                account.getBalance(), account.getVersion());
+    }
+
+    private static boolean onlyBalanceChanged(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return false;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (!BALANCE_PROPERTIES.contains(names[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package com.netbanking.app.cache;
+
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+import com.netbanking.app.dto.AccountSummaryDto;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialized summary of one user's accounts.
+ *
+ * Keeps the last applied row per account so a change can be swapped in by
+ * subtracting the old row and adding the new one. Rows carry the account
+ * version, so a change that was already part of the initial load, or that
+ * arrives out of order, is ignored.
+ */
+final class AccountSummary {
+
+    private final Map<Long, AccountSummaryRow> rows = new HashMap<>();
+    private final Map<AccountType, Totals> byType = new EnumMap<>(AccountType.class);
+    private BigDecimal totalBalance = BigDecimal.ZERO;
+    private int activeAccounts;
+    private int blockedAccounts;
+
+    AccountSummary(List<AccountSummaryRow> initialRows) {
+        initialRows.forEach(this::apply);
+    }
+
+    synchronized void apply(AccountSummaryRow row) {
+        AccountSummaryRow previous = rows.get(row.accountId());
+        if (previous != null && previous.version() != null && row.version() != null
+                && previous.version() >= row.version()) {
+            return;
+        }
+        if (previous != null) {
+            add(previous, -1);
+        }
+        rows.put(row.accountId(), row);
+        add(row, 1);
+    }
+
+    synchronized AccountSummaryDto toDto() {
+        Map<AccountType, AccountSummaryDto.TypeSummary> types = new EnumMap<>(AccountType.class);
+        byType.forEach((type, totals) -> types.put(type,
+                new AccountSummaryDto.TypeSummary(totals.count, totals.balance)));
+        return new AccountSummaryDto(rows.size(), totalBalance, activeAccounts, blockedAccounts, types);
+    }
+
+    private void add(AccountSummaryRow row, int sign) {
+        BigDecimal balance = sign > 0 ? row.balance() : row.balance().negate();
+        totalBalance = totalBalance.add(balance);
+        if (row.status() == Status.ACTIVE) {
+            activeAccounts += sign;
+        } else if (row.status() == Status.BLOCKED) {
+            blockedAccounts += sign;
+        }
+
+        Totals totals = byType.computeIfAbsent(row.accountType(), type -> new Totals());
+        totals.count += sign;
+        totals.balance = totals.balance.add(balance);
+        if (totals.count == 0) {
+            byType.remove(row.accountType());
+        }
+    }
+
+    private static final class Totals {
+        private int count;
+        private BigDecimal balance = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,72 @@
+package com.netbanking.app.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netbanking.app.dto.AccountSummaryDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-user account summaries, built on first request and then kept current
+ * from committed account changes (see {@link AccountCacheListener}).
+ *
+ * A load is an in-flight future in the cache, so a change that commits
+ * while a summary is being loaded is chained onto it and applied on top once
+ * the load completes (or skipped by version if the load already saw it).
+ * Loads run on the calling thread outside the map lock (see
+ * {@link CallerLoads}). Hit/miss
+ * counters are published under {@code cache.gets} with
+ * {@code cache=account-summaries}.
+ */
+@Component
+public class AccountSummaryCache {
+
+    public static final String CACHE_NAME = "account-summaries";
+
+    private final AsyncCache<Long, AccountSummary> cache;
+
+    @Autowired
+    public AccountSummaryCache(@Value("${banking.summary-cache.max-size:50000}") long maxSize,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get a user's summary, building it from the loader's rows on a miss
+     */
+    public AccountSummaryDto get(Long userId, Function<Long, List<AccountSummaryRow>> loader) {
+        return CallerLoads.get(cache, userId, id -> new AccountSummary(loader.apply(id))).toDto();
+    }
+
+    /**
+     * Apply a committed account change to its owner's summary, if one is cached
+     */
+    public void apply(Long userId, AccountSummaryRow row) {
+        if (userId != null) {
+            cache.asMap().computeIfPresent(userId, (id, summary) -> summary.thenApply(loaded -> {
+                loaded.apply(row);
+                return loaded;
+            }));
+        }
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            cache.synchronous().invalidate(userId);
+        }
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,13 @@
+package com.netbanking.app.cache;
+
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of one account that feed its owner's summary
+ */
+public record AccountSummaryRow(Long accountId, AccountType accountType, Status status, BigDecimal balance,
+                                Long version) {
+}
@@ -0,0 +1,91 @@
+package com.netbanking.app.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded (W-TinyLFU) cache of account balances keyed by account number.
+ *
+ * Committed account updates on this node are written through by
+ * {@link AccountCacheListener}; status and overdraft changes evict
+ * the entry. A load is an in-flight future in the cache: an eviction that
+ * races it removes the future, so the value it produces is not kept, and a
+ * write-through is chained onto it and applied once it completes. Loads run
+ * on the calling thread outside the map lock (see {@link CallerLoads}).
+ *
+ * In {@code strict} mode entries live until evicted, which is exact as long
+ * as every write to the accounts table goes through this node. In
+ * {@code bounded-staleness} mode entries also expire after
+ * banking.balance-cache.max-staleness so writes made by other nodes show up
+ * within that bound. Hit/miss counters are published to Actuator under the
+ * {@code cache.gets} metric with {@code cache=account-balances}.
+ */
+@Component
+public class BalanceCache {
+
+    public static final String CACHE_NAME = "account-balances";
+
+    public enum Consistency {
+        STRICT, BOUNDED_STALENESS
+    }
+
+    private final boolean enabled;
+    private final AsyncCache<String, BalanceSnapshot> cache;
+
+    @Autowired
+    public BalanceCache(@Value("${banking.balance-cache.enabled:true}") boolean enabled,
+                        @Value("${banking.balance-cache.max-size:100000}") long maxSize,
+                        @Value("${banking.balance-cache.consistency:strict}") Consistency consistency,
+                        @Value("${banking.balance-cache.max-staleness:5s}") Duration maxStaleness,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats();
+        if (consistency == Consistency.BOUNDED_STALENESS) {
+            builder.expireAfterWrite(maxStaleness);
+        }
+        this.cache = builder.buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the cached balance, loading it on a miss; returns null if the loader finds no account
+     */
+    public BalanceSnapshot get(String accountNumber, Function<String, BalanceSnapshot> loader) {
+        return enabled ? CallerLoads.get(cache, accountNumber, loader) : loader.apply(accountNumber);
+    }
+
+    /**
+     * Write through a committed balance, unless a newer version is already cached
+     */
+    public void update(String accountNumber, BalanceSnapshot snapshot) {
+        if (enabled) {
+            cache.asMap().merge(accountNumber, CompletableFuture.completedFuture(snapshot),
+                    (cached, updated) -> cached.thenApply(current ->
+                            current == null || snapshot.isNewerThan(current) ? snapshot : current));
+        }
+    }
+
+    /**
+     * Drop the cached balance for an account whose status or limits changed
+     */
+    public void evict(String accountNumber) {
+        if (accountNumber != null) {
+            cache.synchronous().invalidate(accountNumber);
+        }
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,14 @@
+package com.netbanking.app.cache;
+
+import java.math.BigDecimal;
+
+/**
+ * Cached balance of one account, with the owner needed for the access check
+ * and the row version used to order concurrent updates.
+ */
+public record BalanceSnapshot(Long ownerId, BigDecimal balance, Long version) {
+
+    boolean isNewerThan(BalanceSnapshot other) {
+        return version == null || other.version == null || version >= other.version;
+    }
+}
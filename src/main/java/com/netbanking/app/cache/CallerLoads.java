@@ -0,0 +1,49 @@
+package com.netbanking.app.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.netbanking.app.datasource.ReadWriteRoutingDataSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Loads into an {@link AsyncCache} on the calling thread, outside any map lock.
+ *
+ * A miss installs an incomplete future for the key; the caller that
+ * installed it runs the loader and completes it, and concurrent callers for
+ * the same key wait on that future. Unlike {@code Cache.get(key, loader)},
+ * nothing blocks inside {@code ConcurrentHashMap.compute}, whose monitor
+ * would pin a virtual thread's carrier for the length of a database query.
+ *
+ * Loads read the primary when a replica is configured: the caches are kept
+ * exact by write-through, and a lagging replica would seed them with a value
+ * that stays cached until the account next changes.
+ */
+final class CallerLoads {
+
+    private CallerLoads() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> claim = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> claim);
+        if (future == claim) {
+            try {
+                claim.complete(ReadWriteRoutingDataSource.onPrimary(() -> loader.apply(key)));
+            } catch (RuntimeException | Error e) {
+                // Failed futures are dropped by the cache, so the next caller retries
+                claim.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
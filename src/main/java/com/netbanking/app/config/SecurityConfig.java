@@ -1,18 +1,26 @@
 package com.netbanking.app.config;
 
+import com.netbanking.app.security.AdaptiveBCryptPasswordEncoder;
+import com.netbanking.app.security.BestEffortPasswordUpgrade;
 import com.netbanking.app.security.JwtAuthenticationEntryPoint;
 import com.netbanking.app.security.JwtAuthenticationFilter;
+import com.netbanking.app.security.PasswordVerificationPool;
+import com.netbanking.app.security.PooledPasswordEncoder;
+import com.netbanking.app.security.RateLimitFilter;
+import com.netbanking.app.security.UnknownEmailCache;
 import com.netbanking.app.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,6 +28,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -34,24 +43,52 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(UserDetailsServiceImpl userDetailsService,
                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                         JwtAuthenticationFilter jwtAuthenticationFilter) {
+                         JwtAuthenticationFilter jwtAuthenticationFilter,
+                         RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
+    /**
+     * BCrypt, verifying on the bounded verification pool rather than the
+     * request thread. The cost is measured at startup so a hash takes about
+     * target-hash-time on this hardware, unless banking.security.password.cost
+     * pins it.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(PasswordVerificationPool passwordVerificationPool,
+                                           @Value("${banking.security.password.cost:0}") int cost,
+                                           @Value("${banking.security.password.target-hash-time:50ms}") Duration targetHashTime,
+                                           @Value("${banking.security.password.min-cost:10}") int minCost,
+                                           @Value("${banking.security.password.max-cost:16}") int maxCost) {
+        AdaptiveBCryptPasswordEncoder bcrypt = cost > 0
+                ? new AdaptiveBCryptPasswordEncoder(cost)
+                : AdaptiveBCryptPasswordEncoder.calibrated(targetHashTime, minCost, maxCost);
+        return new PooledPasswordEncoder(bcrypt, passwordVerificationPool);
     }
 
+    /**
+     * Sign-in looks users up through the unknown-email cache; the JWT filter
+     * and token refresh keep using the plain lookup. Hashes made at another
+     * cost are replaced after a successful sign-in, on the request thread
+     * rather than the verification pool, and a failed replacement does not
+     * fail the sign-in.
+     */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder,
+                                                       UnknownEmailCache unknownEmailCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(unknownEmailCache.guard(userDetailsService));
+        provider.setUserDetailsPasswordService(new BestEffortPasswordUpgrade(userDetailsService));
+        return new ProviderManager(provider);
     }
 
     @Bean
@@ -92,10 +129,23 @@ public class SecurityConfig {
             .headers(headers -> headers.frameOptions().disable()); // For H2 console
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // After authentication, so signed-in users are limited by name rather than address
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Keep the rate limiter out of the servlet filter chain; it only runs
+     * inside the security chain, where the principal is known
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -103,7 +153,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Retry-After"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
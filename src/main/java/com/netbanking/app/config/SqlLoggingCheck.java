@@ -0,0 +1,63 @@
+package com.netbanking.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warns at startup when production runs with per-statement SQL logging.
+ *
+ * Statement and bind-parameter logging writes a line (or one per parameter)
+ * for every JDBC call, which costs more than the query on a busy node and
+ * puts account data in the logs.
+ */
+@Component
+@Profile("prod")
+public class SqlLoggingCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlLoggingCheck.class);
+
+    /** Bind parameter loggers: Hibernate 6, and the Hibernate 5 name still found in configs */
+    private static final List<String> BIND_LOGGERS = List.of("org.hibernate.orm.jdbc.bind",
+            "org.hibernate.type.descriptor.sql.BasicBinder");
+
+    private static final String STATEMENT_LOGGER = "org.hibernate.SQL";
+
+    private final Environment environment;
+
+    @Autowired
+    public SqlLoggingCheck(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        for (String finding : findings()) {
+            logger.warn("SQL logging is active under the prod profile: {}", finding);
+        }
+    }
+
+    List<String> findings() {
+        List<String> findings = new ArrayList<>();
+        for (String name : BIND_LOGGERS) {
+            if (LoggerFactory.getLogger(name).isTraceEnabled()) {
+                findings.add(name + " is at TRACE");
+            }
+        }
+        if (LoggerFactory.getLogger(STATEMENT_LOGGER).isDebugEnabled()) {
+            findings.add(STATEMENT_LOGGER + " is at DEBUG");
+        }
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            findings.add("spring.jpa.show-sql is true");
+        }
+        return findings;
+    }
+}
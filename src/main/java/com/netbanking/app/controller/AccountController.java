@@ -1,31 +1,59 @@
 package com.netbanking.app.controller;
 
 import com.banking.core.entity.Account;
-import com.banking.core.entity.User;
 import com.banking.core.enums.AccountType;
+import com.banking.core.enums.TransactionType;
 import com.banking.core.service.AccountService;
-import com.banking.core.service.UserService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.netbanking.app.dto.AccountDto;
+import com.netbanking.app.dto.AccountSummaryDto;
+import com.netbanking.app.dto.BatchTransferResponse;
 import com.netbanking.app.dto.CreateAccountRequest;
 import com.netbanking.app.dto.DepositRequest;
+import com.netbanking.app.dto.TransactionDto;
 import com.netbanking.app.dto.TransferRequest;
 import com.netbanking.app.dto.WithdrawalRequest;
+import com.netbanking.app.idempotency.IdempotentRequests;
 import com.netbanking.app.security.UserDetailsServiceImpl;
-
+import com.netbanking.app.service.AccountOperationsService;
+import com.netbanking.app.util.KeysetCursor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Account management controller
@@ -35,31 +63,77 @@ import java.util.stream.Collectors;
 @Tag(name = "Account Management", description = "Account operations and management")
 public class AccountController {
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String HAS_NEXT_HEADER = "X-Has-Next";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_HISTORY_SLICE = 100;
+    private static final int MAX_ACCOUNT_SLICE = 100;
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+    private static final String TRANSFER_RESPONSE = "Transfer successful";
+    private static final CSVFormat STATEMENT_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("Date", "Transaction ID", "Type", "Narration", "Debit", "Credit", "Counterparty")
+            .build();
+
     private final AccountService accountService;
-    private final UserService userService;
+    private final AccountOperationsService accountOperationsService;
+    private final IdempotentRequests idempotentRequests;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
     @Autowired
-    public AccountController(AccountService accountService, UserService userService) {
+    public AccountController(AccountService accountService, AccountOperationsService accountOperationsService,
+                             IdempotentRequests idempotentRequests, ObjectMapper objectMapper,
+                             @Value("${banking.transaction.max-batch-size:5000}") int maxBatchSize) {
         this.accountService = accountService;
-        this.userService = userService;
+        this.accountOperationsService = accountOperationsService;
+        this.idempotentRequests = idempotentRequests;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping
-    @Operation(summary = "Get user accounts", description = "Retrieve all accounts for the authenticated user")
+    @Operation(summary = "Get user accounts", description = "Retrieve the authenticated user's accounts, newest first. "
+            + "Pass the X-Next-Cursor header of a response as cursor to fetch the next slice without an offset scan; "
+            + "the total count is only computed when includeTotal=true and is returned in X-Total-Count.")
     public ResponseEntity<List<AccountDto>> getUserAccounts(Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
-        User user = getCurrentUser(authentication);
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Account> accounts = accountService.findByUser(user, pageable);
-        
-        List<AccountDto> accountDtos = accounts.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String cursor) {
         
-        return ResponseEntity.ok(accountDtos);
+        if (page < 0 || size < 1 || size > MAX_ACCOUNT_SLICE) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId = getCurrentUserId(authentication);
+
+        if (cursor != null) {
+            KeysetCursor position;
+            try {
+                position = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            Slice<AccountDto> accounts = accountOperationsService.findAccountsAfter(userId, position, size);
+            return withNextCursor(ResponseEntity.ok(), accounts,
+                    account -> new KeysetCursor(account.getCreatedAt(), account.getId()))
+                    .body(accounts.getContent());
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+
+        if (includeTotal) {
+            Page<AccountDto> accounts = accountOperationsService.findAccountsWithTotal(userId, pageable);
+            return withNextCursor(ResponseEntity.ok(), accounts,
+                    account -> new KeysetCursor(account.getCreatedAt(), account.getId()))
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(accounts.getTotalElements()))
+                    .body(accounts.getContent());
+        }
+
+        Slice<AccountDto> accounts = accountOperationsService.findAccounts(userId, pageable);
+        return withNextCursor(ResponseEntity.ok(), accounts,
+                account -> new KeysetCursor(account.getCreatedAt(), account.getId()))
+                .body(accounts.getContent());
     }
 
     @GetMapping("/{accountNumber}")
@@ -68,16 +142,7 @@ public class AccountController {
             @Parameter(description = "Account number") @PathVariable String accountNumber,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        Account account = accountService.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        // Check if account belongs to user or user is admin
-        if (!account.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+        Account account = accountOperationsService.getAccount(accountNumber, getOwnerScope(authentication));
         return ResponseEntity.ok(convertToDto(account));
     }
 
@@ -87,10 +152,8 @@ public class AccountController {
             @Valid @RequestBody CreateAccountRequest request,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        Account account = accountService.createAccount(
-                user, 
+        Account account = accountOperationsService.createAccount(
+                getCurrentUserId(authentication),
                 AccountType.valueOf(request.getAccountType()),
                 request.getBranchIfsc(),
                 request.getInitialDeposit() != null ? request.getInitialDeposit() : BigDecimal.ZERO
@@ -104,25 +167,23 @@ public class AccountController {
     public ResponseEntity<AccountDto> deposit(
             @Parameter(description = "Account number") @PathVariable String accountNumber,
             @Valid @RequestBody DepositRequest request,
+            @Parameter(description = "Retries with the same key return the first response without posting again")
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        // Verify account ownership
-        Account account = accountService.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        if (!account.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
-        Account updatedAccount = accountService.deposit(
-                accountNumber,
-                request.getAmount(),
-                request.getNarration()
-        );
-        
-        return ResponseEntity.ok(convertToDto(updatedAccount));
+        Long ownerId = getOwnerScope(authentication);
+        AccountDto account = idempotentRequests.execute("deposit", getIdempotencyScope(authentication),
+                idempotencyKey,
+                reference -> convertToDto(accountOperationsService.deposit(
+                        accountNumber,
+                        ownerId,
+                        request.getAmount(),
+                        request.getNarration(),
+                        reference
+                )),
+                () -> convertToDto(accountOperationsService.getAccount(accountNumber, ownerId)));
+        
+        return ResponseEntity.ok(account);
     }
 
     @PostMapping("/{accountNumber}/withdraw")
@@ -130,51 +191,95 @@ public class AccountController {
     public ResponseEntity<AccountDto> withdraw(
             @Parameter(description = "Account number") @PathVariable String accountNumber,
             @Valid @RequestBody WithdrawalRequest request,
+            @Parameter(description = "Retries with the same key return the first response without posting again")
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        // Verify account ownership
-        Account account = accountService.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        if (!account.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
-        Account updatedAccount = accountService.withdraw(
-                accountNumber,
-                request.getAmount(),
-                request.getNarration()
-        );
-        
-        return ResponseEntity.ok(convertToDto(updatedAccount));
+        Long ownerId = getOwnerScope(authentication);
+        AccountDto account = idempotentRequests.execute("withdraw", getIdempotencyScope(authentication),
+                idempotencyKey,
+                reference -> convertToDto(accountOperationsService.withdraw(
+                        accountNumber,
+                        ownerId,
+                        request.getAmount(),
+                        request.getNarration(),
+                        reference
+                )),
+                () -> convertToDto(accountOperationsService.getAccount(accountNumber, ownerId)));
+        
+        return ResponseEntity.ok(account);
     }
 
     @PostMapping("/transfer")
     @Operation(summary = "Transfer money", description = "Transfer money between accounts")
     public ResponseEntity<String> transfer(
             @Valid @RequestBody TransferRequest request,
+            @Parameter(description = "Retries with the same key return the first response without posting again")
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        // Verify source account ownership
-        Account fromAccount = accountService.findByAccountNumber(request.getFromAccountNumber())
-                .orElseThrow(() -> new RuntimeException("Source account not found"));
-        
-        if (!fromAccount.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        String response = idempotentRequests.execute("transfer", getIdempotencyScope(authentication),
+                idempotencyKey,
+                reference -> {
+                    accountOperationsService.transfer(
+                            request.getFromAccountNumber(),
+                            getOwnerScope(authentication),
+                            request.getToAccountNumber(),
+                            request.getAmount(),
+                            request.getNarration(),
+                            reference
+                    );
+                    return TRANSFER_RESPONSE;
+                },
+                () -> TRANSFER_RESPONSE);
+        
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/transfers/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Batch transfer", description = "Settle a list of transfers in one transaction; "
+            + "results are reported per item in request order")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            HttpServletRequest httpRequest,
+            Authentication authentication) throws IOException {
+
+        return settleBatch(httpRequest.getInputStream(), true, authentication);
+    }
+
+    @PostMapping(value = "/transfers/batch", consumes = NDJSON_VALUE)
+    @Operation(summary = "Batch transfer (NDJSON)", description = "Same as the JSON batch endpoint, "
+            + "with one transfer request per line")
+    public ResponseEntity<BatchTransferResponse> transferBatchNdjson(
+            HttpServletRequest httpRequest,
+            Authentication authentication) throws IOException {
+
+        return settleBatch(httpRequest.getInputStream(), false, authentication);
+    }
+
+    /**
+     * Parse the body one request at a time and reject it with 400 as soon as
+     * it holds more than max-batch-size requests, before the rest is read
+     *
+     * @param jsonArray whether the requests are wrapped in a JSON array, rather than one per line
+     */
+    private ResponseEntity<BatchTransferResponse> settleBatch(InputStream body, boolean jsonArray,
+                                                              Authentication authentication) throws IOException {
+        List<TransferRequest> requests = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (jsonArray && parser.nextToken() != JsonToken.START_ARRAY) {
+                return ResponseEntity.badRequest().build();
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (requests.size() == maxBatchSize) {
+                    return ResponseEntity.badRequest().build();
+                }
+                requests.add(parser.readValueAs(TransferRequest.class));
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
         }
-        
-        accountService.transfer(
-                request.getFromAccountNumber(),
-                request.getToAccountNumber(),
-                request.getAmount(),
-                request.getNarration()
-        );
-        
-        return ResponseEntity.ok("Transfer successful");
+        return ResponseEntity.ok(accountOperationsService.transferBatch(requests, getOwnerScope(authentication)));
     }
 
     @GetMapping("/{accountNumber}/balance")
@@ -183,26 +288,114 @@ public class AccountController {
             @Parameter(description = "Account number") @PathVariable String accountNumber,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        // Verify account ownership
-        Account account = accountService.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        if (!account.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
-        BigDecimal balance = accountService.getBalance(accountNumber);
+        BigDecimal balance = accountOperationsService.getBalance(accountNumber, getOwnerScope(authentication));
         return ResponseEntity.ok(balance);
     }
 
+    @GetMapping("/{accountNumber}/transactions")
+    @Operation(summary = "Get transaction history", description = "Transactions sent or received by the account, "
+            + "newest first. Pass the X-Next-Cursor header of a response as cursor to fetch the next slice.")
+    public ResponseEntity<List<TransactionDto>> getTransactions(
+            @Parameter(description = "Account number") @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+
+        if (size < 1 || size > MAX_HISTORY_SLICE) {
+            return ResponseEntity.badRequest().build();
+        }
+        KeysetCursor position;
+        try {
+            position = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<TransactionDto> transactions = accountOperationsService.findTransactions(accountNumber,
+                getOwnerScope(authentication), position, size);
+        return withNextCursor(ResponseEntity.ok(), transactions,
+                transaction -> new KeysetCursor(transaction.getTimestamp(), transaction.getId()))
+                .body(transactions.getContent());
+    }
+
+    @GetMapping(value = "/{accountNumber}/transactions/export", produces = NDJSON_VALUE)
+    @Operation(summary = "Export transaction history", description = "Stream every transaction sent or received "
+            + "by the account in [from, to), newest first, one JSON object per line.")
+    public void exportTransactions(
+            @Parameter(description = "Account number") @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON_VALUE);
+        SequenceWriter writer = objectMapper.writerFor(TransactionDto.class)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream());
+        accountOperationsService.exportTransactions(accountNumber, getOwnerScope(authentication), from, to, type,
+                transaction -> {
+                    try {
+                        writer.write(transaction);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        writer.close();
+    }
+
+    @GetMapping(value = "/{accountNumber}/statement.csv", produces = CSV_VALUE)
+    @Operation(summary = "Download statement", description = "CSV statement of the account for [from, to), "
+            + "newest first. Rows are streamed as they are read, so any period can be exported.")
+    public void downloadStatement(
+            @Parameter(description = "Account number") @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        // Opened on the first row, after the service has checked the account is the caller's,
+        // so a 403 or 404 never follows a header row
+        CSVPrinter[] printer = new CSVPrinter[1];
+        accountOperationsService.exportTransactions(accountNumber, getOwnerScope(authentication), from, to, null,
+                transaction -> {
+                    boolean debit = accountNumber.equals(transaction.getFromAccountNumber());
+                    try {
+                        if (printer[0] == null) {
+                            printer[0] = openStatement(accountNumber, response);
+                        }
+                        printer[0].printRecord(
+                                transaction.getTimestamp(),
+                                transaction.getTxnId(),
+                                transaction.getTxnType(),
+                                transaction.getNarration(),
+                                debit ? transaction.getAmount() : null,
+                                debit ? null : transaction.getAmount(),
+                                debit ? transaction.getToAccountNumber() : transaction.getFromAccountNumber());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        if (printer[0] == null) {
+            printer[0] = openStatement(accountNumber, response);
+        }
+        printer[0].close(true);
+    }
+
+    private static CSVPrinter openStatement(String accountNumber, HttpServletResponse response) throws IOException {
+        response.setContentType(CSV_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("statement-" + accountNumber + ".csv")
+                .build()
+                .toString());
+        return STATEMENT_FORMAT.print(response.getWriter());
+    }
+
     @GetMapping("/summary")
     @Operation(summary = "Get account summary", description = "Get summary of all user accounts")
-    public ResponseEntity<Object> getAccountSummary(Authentication authentication) {
-        User user = getCurrentUser(authentication);
-        Object summary = accountService.getAccountSummary(user);
-        return ResponseEntity.ok(summary);
+    public ResponseEntity<AccountSummaryDto> getAccountSummary(Authentication authentication) {
+        return ResponseEntity.ok(accountOperationsService.getAccountSummary(getCurrentUserId(authentication)));
     }
 
     @PutMapping("/{accountNumber}/block")
@@ -233,27 +426,42 @@ public class AccountController {
             @RequestParam String reason,
             Authentication authentication) {
         
-        User user = getCurrentUser(authentication);
-        
-        // Verify account ownership (or admin)
-        Account account = accountService.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        if (!account.getUser().getId().equals(user.getId()) && !isAdmin(authentication)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
-        accountService.closeAccount(accountNumber, reason);
+        accountOperationsService.closeAccount(accountNumber, getOwnerScope(authentication), reason);
         return ResponseEntity.ok("Account closed successfully");
     }
 
     // Helper methods
-    private User getCurrentUser(Authentication authentication) {
+    /**
+     * Set X-Has-Next, plus X-Next-Cursor pointing after the last row when there is more
+     */
+    private static <T> ResponseEntity.BodyBuilder withNextCursor(ResponseEntity.BodyBuilder response, Slice<T> slice,
+                                                                 Function<T, KeysetCursor> cursorOf) {
+        response.header(HAS_NEXT_HEADER, String.valueOf(slice.hasNext()));
+        if (slice.hasNext() && slice.hasContent()) {
+            List<T> content = slice.getContent();
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return response;
+    }
+
+    private Long getCurrentUserId(Authentication authentication) {
         UserDetailsServiceImpl.UserPrincipal userPrincipal = 
                 (UserDetailsServiceImpl.UserPrincipal) authentication.getPrincipal();
-        
-        return userService.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userPrincipal.getId();
+    }
+
+    /**
+     * Owner id to scope account lookups to, or null for admins who may access any account
+     */
+    private Long getOwnerScope(Authentication authentication) {
+        return isAdmin(authentication) ? null : getCurrentUserId(authentication);
+    }
+
+    /**
+     * Idempotency keys are per user; the id stays stable if the email changes
+     */
+    private String getIdempotencyScope(Authentication authentication) {
+        return String.valueOf(getCurrentUserId(authentication));
     }
 
     private boolean isAdmin(Authentication authentication) {
@@ -1,26 +1,29 @@
 package com.netbanking.app.controller;
 
-import com.banking.core.entity.User;
-import com.banking.core.service.UserService;
 import com.netbanking.app.dto.JwtResponse;
 import com.netbanking.app.dto.LoginRequest;
+import com.netbanking.app.security.RefreshTokenService;
 import com.netbanking.app.security.UserDetailsServiceImpl;
 import com.netbanking.app.util.JwtUtil;
+import com.netbanking.app.util.ParsedToken;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Authentication controller
@@ -33,18 +36,15 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     private final AuthenticationManager authenticationManager;
-    private final UserService userService;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final RefreshTokenService refreshTokenService;
     private final JwtUtil jwtUtil;
 
     @Autowired
     public AuthController(AuthenticationManager authenticationManager,
-                         UserService userService,
-                         UserDetailsServiceImpl userDetailsService,
+                         RefreshTokenService refreshTokenService,
                          JwtUtil jwtUtil) {
         this.authenticationManager = authenticationManager;
-        this.userService = userService;
-        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
         this.jwtUtil = jwtUtil;
     }
 
@@ -64,31 +64,33 @@ public class AuthController {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            // Get user details
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Optional<User> userOpt = userService.findByEmail(userDetails.getUsername());
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body("User not found");
-            }
-            
-            User user = userOpt.get();
+            // The authenticated principal already carries the email and role
+            UserDetailsServiceImpl.UserPrincipal principal =
+                    (UserDetailsServiceImpl.UserPrincipal) authentication.getPrincipal();
 
-            // Generate JWT tokens
-            String accessToken = jwtUtil.generateToken(userDetails);
-            String refreshToken = jwtUtil.generateRefreshToken(userDetails.getUsername());
+            // Start a refresh token family for this sign-in
+            RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(principal);
 
             JwtResponse jwtResponse = new JwtResponse(
-                    accessToken,
-                    refreshToken,
+                    tokens.accessToken(),
+                    tokens.refreshToken(),
                     jwtUtil.getExpiration(),
-                    user.getEmail(),
-                    user.getRole()
+                    principal.getUsername(),
+                    principal.getRole()
             );
 
             logger.info("Login successful for user: {}", loginRequest.getEmail());
             return ResponseEntity.ok(jwtResponse);
 
+        } catch (RejectedExecutionException e) {
+            logger.warn("Login rejected for user {}: password verification pool saturated", loginRequest.getEmail());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many sign-in attempts, try again shortly");
+        } catch (AuthenticationException e) {
+            // Expected under credential stuffing, so no stack trace
+            logger.warn("Login failed for user {}: {}", loginRequest.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid email or password");
         } catch (Exception e) {
             logger.error("Login failed for user: {}", loginRequest.getEmail(), e);
             return ResponseEntity.badRequest().body("Invalid email or password");
@@ -96,22 +98,20 @@ public class AuthController {
     }
 
     @PostMapping("/refresh")
-    @Operation(summary = "Refresh JWT token", description = "Generate new access token using refresh token")
+    @Operation(summary = "Refresh JWT token",
+            description = "Exchange a refresh token for a new access and refresh token; each refresh token works once")
     public ResponseEntity<?> refreshToken(@RequestHeader("Authorization") String authorizationHeader) {
         try {
             String refreshToken = jwtUtil.extractTokenFromHeader(authorizationHeader);
-            
-            if (refreshToken != null && jwtUtil.validateToken(refreshToken)) {
-                String username = jwtUtil.extractUsername(refreshToken);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                String newAccessToken = jwtUtil.generateToken(userDetails);
-                
+            Optional<ParsedToken> parsedToken = jwtUtil.parseToken(refreshToken);
+            Optional<RefreshTokenService.IssuedTokens> tokens = parsedToken.flatMap(refreshTokenService::rotate);
+
+            if (tokens.isPresent()) {
                 JwtResponse jwtResponse = new JwtResponse();
-                jwtResponse.setAccessToken(newAccessToken);
-                jwtResponse.setRefreshToken(refreshToken);
+                jwtResponse.setAccessToken(tokens.get().accessToken());
+                jwtResponse.setRefreshToken(tokens.get().refreshToken());
                 jwtResponse.setExpiresIn(jwtUtil.getExpiration());
-                jwtResponse.setUserEmail(username);
+                jwtResponse.setUserEmail(parsedToken.get().getSubject());
                 
                 return ResponseEntity.ok(jwtResponse);
             } else {
@@ -124,12 +124,13 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    @Operation(summary = "User logout", description = "Logout user (client should discard tokens)")
-    public ResponseEntity<?> logoutUser() {
-        // In a stateless JWT setup, logout is handled on the client side
-        // by discarding the tokens. Server-side token blacklisting can be implemented
-        // for enhanced security but is not implemented in this basic version.
-        
+    @Operation(summary = "User logout",
+            description = "Revoke the sign-in the presented token belongs to, with all its access and refresh tokens")
+    public ResponseEntity<?> logoutUser(
+            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+        jwtUtil.parseToken(jwtUtil.extractTokenFromHeader(authorizationHeader))
+                .ifPresent(refreshTokenService::revoke);
+
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok("Logged out successfully");
     }
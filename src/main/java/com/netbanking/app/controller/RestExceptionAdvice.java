@@ -0,0 +1,38 @@
+package com.netbanking.app.controller;
+
+import com.banking.core.exception.AccountNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Status codes for exceptions that would otherwise surface as a 500
+ */
+@RestControllerAdvice
+public class RestExceptionAdvice {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestExceptionAdvice.class);
+
+    /**
+     * 503 with {@code Retry-After} when a bounded pool turns work away (the
+     * password verification pool, for one)
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejected(RejectedExecutionException e) {
+        logger.warn("Request rejected, pool saturated: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Service busy, try again shortly");
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<String> handleAccountNotFound(AccountNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+}
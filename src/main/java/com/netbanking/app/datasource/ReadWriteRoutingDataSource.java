@@ -0,0 +1,103 @@
+package com.netbanking.app.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the
+ * primary.
+ *
+ * The route is chosen when a physical connection is first needed, so this
+ * must sit behind a {@link LazyConnectionDataSourceProxy}: the transaction
+ * manager opens its connection before the read-only flag is published, and
+ * the proxy defers that until the first statement.
+ *
+ * A principal whose write transaction committed within the read-your-writes
+ * window keeps reading from the primary, so a lagging replica never shows
+ * them a posting that appears to be missing. Work wrapped in
+ * {@link #onPrimary(Supplier)} also reads from the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final RecentWriters recentWriters;
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, RecentWriters recentWriters) {
+        this.recentWriters = recentWriters;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run work whose first statement must read the primary, e.g. loads that
+     * seed a cache kept exact by commit-time write-through. Has no effect once
+     * the surrounding transaction already holds a replica connection.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String principal = currentPrincipal();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            wrote(principal);
+            return Route.PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null || recentWriters.wroteRecently(principal)) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    /**
+     * Start the principal's read-your-writes window when the write commits,
+     * or now when there is no transaction to wait for
+     */
+    private void wrote(String principal) {
+        if (principal == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.wrote(principal);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.wrote(principal);
+            }
+        });
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,39 @@
+package com.netbanking.app.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Principals who committed a write within the read-your-writes window.
+ *
+ * The window should cover the replica's normal lag; entries expire on their
+ * own, and the size bound only matters if more principals write within one
+ * window than it holds.
+ */
+class RecentWriters {
+
+    private final Cache<String, Boolean> writers;
+
+    RecentWriters(Duration window, long maxSize) {
+        this(window, maxSize, Ticker.systemTicker());
+    }
+
+    RecentWriters(Duration window, long maxSize, Ticker ticker) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .build();
+    }
+
+    void wrote(String principal) {
+        writers.put(principal, Boolean.TRUE);
+    }
+
+    boolean wroteRecently(String principal) {
+        return principal != null && writers.getIfPresent(principal) != null;
+    }
+}
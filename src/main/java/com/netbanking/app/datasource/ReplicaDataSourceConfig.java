@@ -0,0 +1,55 @@
+package com.netbanking.app.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary and replica pools behind a {@link ReadWriteRoutingDataSource},
+ * enabled with banking.datasource.replica.enabled.
+ *
+ * The primary pool is built from spring.datasource as Boot would build it;
+ * the replica pool binds banking.datasource.replica directly onto Hikari
+ * (jdbc-url, username, password, maximum-pool-size, ...). Schema creation
+ * and sql.init scripts run outside transactions, so they only touch the
+ * primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("banking.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("netbanking-replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${banking.datasource.replica.read-your-writes:5s}") Duration readYourWrites,
+                                 @Value("${banking.datasource.replica.recent-writers-max-size:100000}") long maxSize) {
+        RecentWriters recentWriters = new RecentWriters(readYourWrites, maxSize);
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, recentWriters));
+    }
+}
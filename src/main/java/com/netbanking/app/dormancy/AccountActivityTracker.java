@@ -0,0 +1,144 @@
+package com.netbanking.app.dormancy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netbanking.app.entity.AccountActivity;
+import com.netbanking.app.repository.AccountActivityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps {@link AccountActivity#getLastActivityAt()} current as postings are made.
+ *
+ * Accounts touched inside a transaction are collected and written with one
+ * UPDATE just before it commits, so a transfer or a whole batch costs one
+ * extra statement. Dormancy is measured in days, so an account already
+ * written today is skipped until tomorrow; that is only remembered once the
+ * write has committed.
+ */
+@Component
+public class AccountActivityTracker {
+
+    // Keeps IN lists well under database parameter limits
+    private static final int WRITE_CHUNK_SIZE = 500;
+
+    private final AccountActivityRepository accountActivityRepository;
+    // Account id -> day its activity was last written
+    private final Cache<Long, LocalDate> writtenOn;
+
+    @Autowired
+    public AccountActivityTracker(AccountActivityRepository accountActivityRepository,
+                                  @Value("${banking.dormancy.tracker-cache-size:100000}") long cacheSize) {
+        this.accountActivityRepository = accountActivityRepository;
+        this.writtenOn = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Start tracking an account opened in the current transaction
+     */
+    public void opened(Long accountId) {
+        accountActivityRepository.save(new AccountActivity(accountId, LocalDateTime.now()));
+        Pending pending = pending();
+        if (pending != null) {
+            pending.opened.add(accountId);
+        }
+    }
+
+    /**
+     * Record a posting against the given accounts; nulls are ignored
+     */
+    public void touched(Long... accountIds) {
+        touched(Arrays.stream(accountIds).filter(Objects::nonNull).toList());
+    }
+
+    public void touched(Collection<Long> accountIds) {
+        LocalDate today = LocalDate.now();
+        Set<Long> due = new HashSet<>();
+        for (Long accountId : accountIds) {
+            if (!today.equals(writtenOn.getIfPresent(accountId))) {
+                due.add(accountId);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Pending pending = pending();
+        if (pending != null) {
+            pending.touched.addAll(due);
+        } else {
+            remember(due, write(due));
+        }
+    }
+
+    private LocalDate write(Set<Long> accountIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(accountIds);
+        for (int start = 0; start < ids.size(); start += WRITE_CHUNK_SIZE) {
+            accountActivityRepository.touch(ids.subList(start, Math.min(start + WRITE_CHUNK_SIZE, ids.size())), now);
+        }
+        return now.toLocalDate();
+    }
+
+    private void remember(Set<Long> accountIds, LocalDate day) {
+        for (Long accountId : accountIds) {
+            writtenOn.put(accountId, day);
+        }
+    }
+
+    /**
+     * The current transaction's collected ids, registering the flush on first use
+     */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Set<Long> touched = new HashSet<>();
+        private final Set<Long> opened = new HashSet<>();
+        private LocalDate writtenDay;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Rows opened in this transaction are inserted with the current time already
+            touched.removeAll(opened);
+            if (!touched.isEmpty()) {
+                writtenDay = write(touched);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AccountActivityTracker.this);
+            if (status == STATUS_COMMITTED) {
+                if (writtenDay != null) {
+                    remember(touched, writtenDay);
+                }
+                remember(opened, LocalDate.now());
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.netbanking.app.dormancy;
+
+import java.time.LocalDateTime;
+
+/**
+ * An active account with no postings since before the dormancy cutoff.
+ * Published as an application event by each sweep.
+ */
+public record DormantAccount(Long accountId, String accountNumber, LocalDateTime lastActivityAt) {
+}
@@ -0,0 +1,82 @@
+package com.netbanking.app.dormancy;
+
+import com.netbanking.app.repository.AccountActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Finds active accounts with no postings for banking.dormancy.threshold.
+ *
+ * Walks the last-activity index oldest first, one keyset batch at a time,
+ * so a sweep reads only the idle accounts and never holds more than a batch
+ * in memory. The scheduled sweep publishes each result as a
+ * {@link DormantAccount} application event.
+ */
+@Component
+public class DormantAccountScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DormantAccountScanner.class);
+
+    // Before any stored activity, so the first batch starts at the beginning of the index
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final AccountActivityRepository accountActivityRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration threshold;
+    private final int batchSize;
+
+    @Autowired
+    public DormantAccountScanner(AccountActivityRepository accountActivityRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${banking.dormancy.threshold:365d}") Duration threshold,
+                                 @Value("${banking.dormancy.batch-size:1000}") int batchSize) {
+        this.accountActivityRepository = accountActivityRepository;
+        this.eventPublisher = eventPublisher;
+        this.threshold = threshold;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${banking.dormancy.cron:0 30 2 * * *}")
+    public void sweep() {
+        long started = System.nanoTime();
+        int seeded = accountActivityRepository.insertMissing();
+        AtomicLong found = new AtomicLong();
+        scan(LocalDateTime.now().minus(threshold)).forEach(account -> {
+            eventPublisher.publishEvent(account);
+            found.incrementAndGet();
+        });
+        logger.info("Dormancy sweep finished - Dormant: {}, Newly tracked: {}, Took: {} ms",
+                found.get(), seeded, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Active accounts idle since before the cutoff, oldest activity first.
+     * Batches are fetched lazily as the stream is consumed.
+     */
+    public Stream<DormantAccount> scan(LocalDateTime cutoff) {
+        return Stream.iterate(fetch(cutoff, START, 0L), batch -> !batch.isEmpty(), batch -> {
+                    if (batch.size() < batchSize) {
+                        return List.of();
+                    }
+                    DormantAccount last = batch.get(batch.size() - 1);
+                    return fetch(cutoff, last.lastActivityAt(), last.accountId());
+                })
+                .flatMap(List::stream);
+    }
+
+    private List<DormantAccount> fetch(LocalDateTime cutoff, LocalDateTime afterAt, Long afterId) {
+        return accountActivityRepository.findIdleAfter(cutoff, afterAt, afterId, PageRequest.of(0, batchSize));
+    }
+}
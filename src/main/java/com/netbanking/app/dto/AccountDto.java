@@ -1,5 +1,8 @@
 package com.netbanking.app.dto;
 
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -25,6 +28,27 @@ public class AccountDto {
     // Constructors
     public AccountDto() {}
 
+    /**
+     * Used by JPQL constructor projections, which select the enums and branch columns directly
+     */
+    public AccountDto(Long id, String accountNumber, AccountType accountType, BigDecimal balance, String currency,
+                      BigDecimal overdraftLimit, BigDecimal interestRate, Status status, String branchName,
+                      String branchIfsc, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.accountType = accountType.name();
+        this.balance = balance;
+        this.currency = currency;
+        this.availableBalance = balance.add(overdraftLimit);
+        this.overdraftLimit = overdraftLimit;
+        this.interestRate = interestRate;
+        this.status = status.name();
+        this.branchName = branchName;
+        this.branchIfsc = branchIfsc;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
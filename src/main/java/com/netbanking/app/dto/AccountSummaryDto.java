@@ -0,0 +1,103 @@
+package com.netbanking.app.dto;
+
+import com.banking.core.enums.AccountType;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Response DTO for a user's account summary
+ */
+public class AccountSummaryDto {
+
+    private int totalAccounts;
+    private BigDecimal totalBalance;
+    private int activeAccounts;
+    private int blockedAccounts;
+    private Map<AccountType, TypeSummary> byType;
+
+    // Constructors
+    public AccountSummaryDto() {}
+
+    public AccountSummaryDto(int totalAccounts, BigDecimal totalBalance, int activeAccounts, int blockedAccounts,
+                             Map<AccountType, TypeSummary> byType) {
+        this.totalAccounts = totalAccounts;
+        this.totalBalance = totalBalance;
+        this.activeAccounts = activeAccounts;
+        this.blockedAccounts = blockedAccounts;
+        this.byType = byType;
+    }
+
+    // Getters and Setters
+    public int getTotalAccounts() {
+        return totalAccounts;
+    }
+
+    public void setTotalAccounts(int totalAccounts) {
+        this.totalAccounts = totalAccounts;
+    }
+
+    public BigDecimal getTotalBalance() {
+        return totalBalance;
+    }
+
+    public void setTotalBalance(BigDecimal totalBalance) {
+        this.totalBalance = totalBalance;
+    }
+
+    public int getActiveAccounts() {
+        return activeAccounts;
+    }
+
+    public void setActiveAccounts(int activeAccounts) {
+        this.activeAccounts = activeAccounts;
+    }
+
+    public int getBlockedAccounts() {
+        return blockedAccounts;
+    }
+
+    public void setBlockedAccounts(int blockedAccounts) {
+        this.blockedAccounts = blockedAccounts;
+    }
+
+    public Map<AccountType, TypeSummary> getByType() {
+        return byType;
+    }
+
+    public void setByType(Map<AccountType, TypeSummary> byType) {
+        this.byType = byType;
+    }
+
+    /**
+     * Count and combined balance of one account type
+     */
+    public static class TypeSummary {
+
+        private int count;
+        private BigDecimal balance;
+
+        public TypeSummary() {}
+
+        public TypeSummary(int count, BigDecimal balance) {
+            this.count = count;
+            this.balance = balance;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public void setBalance(BigDecimal balance) {
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.netbanking.app.dto;
+
+/**
+ * Outcome of one transfer within a batch
+ */
+public class BatchTransferItemResult {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private int index;
+    private String status;
+    private String txnId;
+    private String errorCode;
+    private String message;
+
+    // Constructors
+    public BatchTransferItemResult() {}
+
+    public static BatchTransferItemResult success(int index, String txnId) {
+        BatchTransferItemResult result = new BatchTransferItemResult();
+        result.index = index;
+        result.status = STATUS_SUCCESS;
+        result.txnId = txnId;
+        return result;
+    }
+
+    public static BatchTransferItemResult failure(int index, String errorCode, String message) {
+        BatchTransferItemResult result = new BatchTransferItemResult();
+        result.index = index;
+        result.status = STATUS_FAILED;
+        result.errorCode = errorCode;
+        result.message = message;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getTxnId() {
+        return txnId;
+    }
+
+    public void setTxnId(String txnId) {
+        this.txnId = txnId;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
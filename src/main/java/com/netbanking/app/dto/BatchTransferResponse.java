@@ -0,0 +1,49 @@
+package com.netbanking.app.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for batch transfers; results are in request order
+ */
+public class BatchTransferResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchTransferItemResult> results;
+
+    // Constructors
+    public BatchTransferResponse() {}
+
+    public BatchTransferResponse(List<BatchTransferItemResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream()
+                .filter(result -> BatchTransferItemResult.STATUS_SUCCESS.equals(result.getStatus()))
+                .count();
+        this.failed = results.size() - succeeded;
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchTransferItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchTransferItemResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,125 @@
+package com.netbanking.app.dto;
+
+import com.banking.core.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Transaction DTO for API responses
+ */
+public class TransactionDto {
+
+    private Long id;
+    private String txnId;
+    private String txnType;
+    private BigDecimal amount;
+    private String currency;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private LocalDateTime timestamp;
+    private String narration;
+    private BigDecimal balanceAfter;
+
+    // Constructors
+    public TransactionDto() {}
+
+    /**
+     * Used by JPQL constructor projections
+     */
+    public TransactionDto(Long id, String txnId, TransactionType txnType, BigDecimal amount, String currency,
+                          String fromAccountNumber, String toAccountNumber, LocalDateTime timestamp,
+                          String narration, BigDecimal balanceAfter) {
+        this.id = id;
+        this.txnId = txnId;
+        this.txnType = txnType.name();
+        this.amount = amount;
+        this.currency = currency;
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.timestamp = timestamp;
+        this.narration = narration;
+        this.balanceAfter = balanceAfter;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTxnId() {
+        return txnId;
+    }
+
+    public void setTxnId(String txnId) {
+        this.txnId = txnId;
+    }
+
+    public String getTxnType() {
+        return txnType;
+    }
+
+    public void setTxnType(String txnType) {
+        this.txnType = txnType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getFromAccountNumber() {
+        return fromAccountNumber;
+    }
+
+    public void setFromAccountNumber(String fromAccountNumber) {
+        this.fromAccountNumber = fromAccountNumber;
+    }
+
+    public String getToAccountNumber() {
+        return toAccountNumber;
+    }
+
+    public void setToAccountNumber(String toAccountNumber) {
+        this.toAccountNumber = toAccountNumber;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getNarration() {
+        return narration;
+    }
+
+    public void setNarration(String narration) {
+        this.narration = narration;
+    }
+
+    public BigDecimal getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(BigDecimal balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+}
@@ -0,0 +1,75 @@
+package com.netbanking.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * When an account last had money posted to or from it.
+ *
+ * Kept beside the core accounts table rather than in it, and indexed by
+ * time, so dormancy sweeps read only the accounts that are actually idle.
+ * Rows are created with their account and never deleted with it; sweeps
+ * join back to accounts, so orphans are ignored.
+ */
+@Entity
+@Table(name = "account_activity", indexes = {
+        @Index(name = "idx_account_activity_last", columnList = "last_activity_at, account_id")
+})
+public class AccountActivity implements Persistable<Long> {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+
+    // The id is assigned, so tell Spring Data a fresh instance needs an INSERT, not a merge
+    @Transient
+    private boolean isNew = true;
+
+    protected AccountActivity() {
+    }
+
+    public AccountActivity(Long accountId, LocalDateTime lastActivityAt) {
+        this.accountId = accountId;
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    @Override
+    public Long getId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+}
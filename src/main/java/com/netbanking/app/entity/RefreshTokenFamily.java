@@ -0,0 +1,79 @@
+package com.netbanking.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One sign-in's chain of refresh tokens.
+ *
+ * Every refresh rotates the family to its next generation, and only a
+ * token of the current generation may refresh. Presenting an older one means
+ * the token was copied, so the whole family is revoked, along with the
+ * access tokens issued from it.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_family_revoked", columnList = "revoked_at"),
+        @Index(name = "idx_refresh_family_expires", columnList = "expires_at")
+})
+public class RefreshTokenFamily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "generation", nullable = false)
+    private int generation;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    protected RefreshTokenFamily() {
+    }
+
+    public RefreshTokenFamily(Long userId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
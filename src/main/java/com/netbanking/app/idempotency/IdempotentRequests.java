@@ -0,0 +1,162 @@
+package com.netbanking.app.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netbanking.app.journal.LedgerJournal;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a posting at most once per Idempotency-Key.
+ *
+ * Each key is scoped to the endpoint and the signed-in principal and hashed
+ * into a reference that the posting stores in transactions.reference_number.
+ * Keys seen by this node are held in memory for banking.idempotency.ttl with
+ * the response they produced, so a retry is answered from the map without
+ * touching the database, and a first attempt costs one map insert. A retry
+ * this node has not seen (after a restart, or sent to another node) runs the
+ * posting again; its ledger insert then fails on the unique reference index,
+ * which rolls back the balance changes, and the original is replayed. With
+ * the ledger journal enabled the original may not be drained into the table
+ * yet, so the journal is asked as well.
+ *
+ * Failed attempts are forgotten, so a retry after a failure runs again.
+ */
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentRequests.class);
+    private static final String CACHE_NAME = "idempotency";
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final TransactionQueryRepository transactionQueryRepository;
+    private final LedgerJournal ledgerJournal;
+    private final Cache<String, CompletableFuture<Object>> outcomes;
+
+    @Autowired
+    public IdempotentRequests(TransactionQueryRepository transactionQueryRepository,
+                              ObjectProvider<LedgerJournal> ledgerJournal, MeterRegistry meterRegistry,
+                              @Value("${banking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${banking.idempotency.max-size:100000}") long maxSize) {
+        this(transactionQueryRepository, ledgerJournal.getIfAvailable(), meterRegistry, ttl, maxSize);
+    }
+
+    IdempotentRequests(TransactionQueryRepository transactionQueryRepository, LedgerJournal ledgerJournal,
+                       MeterRegistry meterRegistry, Duration ttl, long maxSize) {
+        this.transactionQueryRepository = transactionQueryRepository;
+        this.ledgerJournal = ledgerJournal;
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes, CACHE_NAME);
+    }
+
+    /**
+     * Run the posting unless this key already ran it, in which case return
+     * the original response
+     *
+     * @param endpoint  names the operation, so one key reused on another endpoint is a new request
+     * @param key       the client's Idempotency-Key, or null to run the posting unconditionally
+     * @param posting   runs the posting with the reference to store on its ledger row
+     * @param replay    rebuilds the response of a posting that committed before this node saw the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, String principal, String key, Function<String, T> posting,
+                         Supplier<T> replay) {
+        if (key == null) {
+            return posting.apply(null);
+        }
+        if (!VALID_KEY.matcher(key).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1-64 letters, digits, '-' or '_'");
+        }
+
+        String reference = reference(endpoint, principal, key);
+        CompletableFuture<Object> claim = new CompletableFuture<>();
+        CompletableFuture<Object> existing = outcomes.asMap().putIfAbsent(reference, claim);
+        if (existing != null) {
+            if (!existing.isDone()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still in progress");
+            }
+            logger.debug("Replaying {} for a repeated {}", endpoint, HEADER);
+            return (T) existing.join();
+        }
+
+        try {
+            T response = run(endpoint, reference, posting, replay);
+            claim.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            outcomes.asMap().remove(reference, claim);
+            throw e;
+        }
+    }
+
+    private <T> T run(String endpoint, String reference, Function<String, T> posting, Supplier<T> replay) {
+        try {
+            return posting.apply(reference);
+        } catch (RuntimeException e) {
+            if (!isDuplicateReference(e) || !isRecorded(reference)) {
+                throw e;
+            }
+            logger.debug("Replaying {} for an {} recorded before this node saw it", endpoint, HEADER);
+            return replay.get();
+        }
+    }
+
+    /**
+     * Journal first: an entry leaves it only after its row is in the table
+     */
+    private boolean isRecorded(String reference) {
+        return (ledgerJournal != null && ledgerJournal.holdsReference(reference))
+                || transactionQueryRepository.existsByReferenceNumber(reference);
+    }
+
+    public void evictAll() {
+        outcomes.invalidateAll();
+    }
+
+    static String reference(String endpoint, String principal, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((endpoint + '\0' + principal + '\0' + key).getBytes(StandardCharsets.UTF_8));
+            return "IK-" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isDuplicateReference(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
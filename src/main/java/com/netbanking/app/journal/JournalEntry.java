@@ -0,0 +1,74 @@
+package com.netbanking.app.journal;
+
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.repository.TransactionBatchWriter.LedgerRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A ledger row as written to the journal.
+ *
+ * Besides the row itself it records the account whose balance the row
+ * reports and that account's version after the change, which is how
+ * recovery decides whether an entry's database transaction committed.
+ */
+public record JournalEntry(LedgerRow row, long subjectAccountId, long subjectVersion) {
+
+    private static final long NO_ID = -1;
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(row.txnId());
+            out.writeUTF(row.type().name());
+            out.writeUTF(row.amount().toPlainString());
+            out.writeUTF(row.currency());
+            out.writeLong(row.fromAccountId() != null ? row.fromAccountId() : NO_ID);
+            out.writeLong(row.toAccountId() != null ? row.toAccountId() : NO_ID);
+            out.writeUTF(row.timestamp().toString());
+            out.writeBoolean(row.narration() != null);
+            if (row.narration() != null) {
+                out.writeUTF(row.narration());
+            }
+            out.writeUTF(row.balanceAfter().toPlainString());
+            out.writeBoolean(row.reference() != null);
+            if (row.reference() != null) {
+                out.writeUTF(row.reference());
+            }
+            out.writeLong(subjectAccountId);
+            out.writeLong(subjectVersion);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(DataInputStream in) throws IOException {
+        String txnId = in.readUTF();
+        TransactionType type = TransactionType.valueOf(in.readUTF());
+        BigDecimal amount = new BigDecimal(in.readUTF());
+        String currency = in.readUTF();
+        long fromId = in.readLong();
+        long toId = in.readLong();
+        LocalDateTime timestamp = LocalDateTime.parse(in.readUTF());
+        String narration = in.readBoolean() ? in.readUTF() : null;
+        BigDecimal balanceAfter = new BigDecimal(in.readUTF());
+        String reference = in.readBoolean() ? in.readUTF() : null;
+        long subjectAccountId = in.readLong();
+        long subjectVersion = in.readLong();
+
+        LedgerRow row = new LedgerRow(txnId, type, amount, currency, fromId != NO_ID ? fromId : null,
+                toId != NO_ID ? toId : null, timestamp, narration, balanceAfter, reference);
+        return new JournalEntry(row, subjectAccountId, subjectVersion);
+    }
+
+    public String txnId() {
+        return row.txnId();
+    }
+}
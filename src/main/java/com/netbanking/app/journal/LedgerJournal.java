@@ -0,0 +1,602 @@
+package com.netbanking.app.journal;
+
+import com.banking.core.entity.Account;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.TransactionBatchWriter;
+import com.netbanking.app.repository.TransactionBatchWriter.LedgerRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead log for ledger rows.
+ *
+ * The request thread appends an entry inside its database transaction and
+ * waits until it is on disk, then appends a COMMITTED or ABORTED marker once
+ * that transaction completes. Writes are group-committed: records are copied
+ * into the segment under a short lock, and one thread at a time forces
+ * everything written so far, so concurrent postings share each fsync rather
+ * than queueing one behind another's. A scheduled drainer batch-inserts committed entries
+ * into the transactions table and advances a checkpoint; segments wholly
+ * behind the checkpoint are deleted.
+ *
+ * On startup every entry after the checkpoint is replayed. Entries whose
+ * marker never made it to disk are settled against the account row: if the
+ * account is at the version the entry recorded, with the recorded balance,
+ * the transaction committed. Entries that cannot be settled either way are
+ * written to {@code in-doubt.log} for reconciliation instead of being dropped.
+ *
+ * Only single postings (TransactionRecorder) go through the journal. Batch
+ * transfers insert their rows directly inside their own transaction, so they
+ * never appear here; the transactions table, not the journal, is the complete
+ * record.
+ *
+ * Record layout: {@code [int length][byte kind][payload][int crc32]}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class LedgerJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private static final byte KIND_ENTRY = 1;
+    private static final byte KIND_COMMITTED = 2;
+    private static final byte KIND_ABORTED = 3;
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String IN_DOUBT_FILE = "in-doubt.log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int drainBatchSize;
+    private final TransactionBatchWriter transactionBatchWriter;
+    private final AccountQueryRepository accountQueryRepository;
+    private final TransactionOperations transactionOperations;
+
+    // Not synchronized: waiters block on disk I/O, which would pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Held by the one thread forcing the log; never taken while holding lock
+    private final ReentrantLock forceLock = new ReentrantLock();
+    // Guarded by lock
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    // Guarded by lock: idempotency reference to txn id, for pending entries that carry one
+    private final Map<String, String> pendingReferences = new HashMap<>();
+    private Segment active;
+    private Position checkpoint;
+    private long written;
+    // Guarded by forceLock: where the last force ended
+    private Position forcedTo = new Position(-1, 0);
+    // Records 1..forced are on disk
+    private volatile long forced;
+
+    @Autowired
+    public LedgerJournal(@Value("${banking.journal.directory:journal}") Path directory,
+                         @Value("${banking.journal.segment-size:16MB}") DataSize segmentSize,
+                         @Value("${banking.journal.drain-batch-size:1000}") int drainBatchSize,
+                         TransactionBatchWriter transactionBatchWriter,
+                         AccountQueryRepository accountQueryRepository,
+                         PlatformTransactionManager transactionManager) {
+        this(directory, (int) segmentSize.toBytes(), drainBatchSize, transactionBatchWriter,
+                accountQueryRepository, new TransactionTemplate(transactionManager));
+    }
+
+    LedgerJournal(Path directory, int segmentSize, int drainBatchSize, TransactionBatchWriter transactionBatchWriter,
+                  AccountQueryRepository accountQueryRepository, TransactionOperations transactionOperations) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.drainBatchSize = drainBatchSize;
+        this.transactionBatchWriter = transactionBatchWriter;
+        this.accountQueryRepository = accountQueryRepository;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * Replay whatever the previous run left behind, then start a fresh segment
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = listSegments();
+            recover(segments);
+
+            long nextSequence = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+            active = Segment.open(segmentPath(nextSequence), nextSequence, segmentSize);
+            saveCheckpoint(new Position(nextSequence, 0));
+            logger.info("Ledger journal open at {} (segment {})", directory.toAbsolutePath(), nextSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Durably append an entry; call inside the database transaction that made the change
+     */
+    public void append(JournalEntry entry) {
+        byte[] payload = entry.encode();
+        long ticket;
+        lock.lock();
+        try {
+            Position position = write(KIND_ENTRY, payload);
+            pending.put(entry.txnId(), new Pending(entry, position));
+            if (entry.row().reference() != null) {
+                pendingReferences.put(entry.row().reference(), entry.txnId());
+            }
+            ticket = written;
+        } finally {
+            lock.unlock();
+        }
+        awaitForced(ticket);
+    }
+
+    /**
+     * Record the outcome of the database transaction that appended an entry
+     */
+    public void resolve(String txnId, boolean committed) {
+        long ticket;
+        lock.lock();
+        try {
+            write(committed ? KIND_COMMITTED : KIND_ABORTED, txnId.getBytes(StandardCharsets.UTF_8));
+            Pending entry = pending.get(txnId);
+            if (entry != null) {
+                entry.outcome = committed ? Outcome.COMMITTED : Outcome.ABORTED;
+                if (!committed && entry.entry.row().reference() != null) {
+                    pendingReferences.remove(entry.entry.row().reference(), txnId);
+                }
+            }
+            ticket = written;
+        } finally {
+            lock.unlock();
+        }
+        awaitForced(ticket);
+    }
+
+    /**
+     * Whether an entry with this idempotency reference is waiting to be
+     * drained and was not aborted. Drained entries are in the transactions
+     * table, so checking here and then there misses neither.
+     */
+    public boolean holdsReference(String reference) {
+        lock.lock();
+        try {
+            return pendingReferences.containsKey(reference);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return once the record with the given ticket is on disk. The first
+     * waiter forces every record written so far, outside the append lock;
+     * waiters whose records that force covered return without one.
+     */
+    private void awaitForced(long ticket) {
+        if (forced >= ticket) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (forced >= ticket) {
+                return;
+            }
+            long target;
+            Segment segment;
+            Position end;
+            lock.lock();
+            try {
+                target = written;
+                segment = active;
+                end = segment.end();
+            } finally {
+                lock.unlock();
+            }
+            // Segments before this one were forced in full when they were rolled
+            int from = forcedTo.segment() == end.segment() ? forcedTo.offset() : 0;
+            if (end.offset() > from) {
+                segment.buffer.force(from, end.offset() - from);
+            }
+            forcedTo = end;
+            forced = target;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Insert resolved entries, oldest first, and move the checkpoint past them
+     */
+    @Scheduled(fixedDelayString = "${banking.journal.drain-interval-ms:200}")
+    public void drain() {
+        List<Pending> batch = new ArrayList<>();
+        Position drainedTo = null;
+        lock.lock();
+        try {
+            for (Pending entry : pending.values()) {
+                if (entry.outcome == null || batch.size() == drainBatchSize) {
+                    drainedTo = entry.position;
+                    break;
+                }
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (drainedTo == null) {
+                drainedTo = active.end();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        List<JournalEntry> committed = batch.stream()
+                .filter(entry -> entry.outcome == Outcome.COMMITTED)
+                .map(entry -> entry.entry)
+                .toList();
+        int inserted;
+        try {
+            inserted = insert(committed);
+        } catch (RuntimeException e) {
+            logger.error("Journal drain failed, {} entries will be retried", batch.size(), e);
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (Pending entry : batch) {
+                pending.remove(entry.entry.txnId());
+                if (entry.entry.row().reference() != null) {
+                    pendingReferences.remove(entry.entry.row().reference(), entry.entry.txnId());
+                }
+            }
+            saveCheckpoint(drainedTo);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Drained {} journal entries ({} inserted)", batch.size(), inserted);
+    }
+
+    /**
+     * Number of entries appended but not yet drained
+     */
+    public int backlog() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        drain();
+        lock.lock();
+        try {
+            if (active != null) {
+                active.close();
+                active = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover(List<Long> segments) throws IOException {
+        Position from = loadCheckpoint().orElse(new Position(segments.isEmpty() ? 0 : segments.get(0), 0));
+        LinkedHashMap<String, Pending> found = new LinkedHashMap<>();
+        for (long sequence : segments) {
+            if (sequence >= from.segment()) {
+                scan(sequence, sequence == from.segment() ? from.offset() : 0, found);
+            }
+        }
+        if (found.isEmpty()) {
+            return;
+        }
+
+        List<JournalEntry> committed = new ArrayList<>();
+        int aborted = 0;
+        int inDoubt = 0;
+        for (Pending entry : found.values()) {
+            Outcome outcome = entry.outcome != null ? entry.outcome : settle(entry.entry);
+            if (outcome == Outcome.COMMITTED) {
+                committed.add(entry.entry);
+            } else if (outcome == Outcome.ABORTED) {
+                aborted++;
+            } else {
+                quarantine(entry.entry, "could not be settled against account " + entry.entry.subjectAccountId());
+                inDoubt++;
+            }
+        }
+
+        // A crash between insert and checkpoint can leave rows that were already drained
+        Set<String> existing = transactionBatchWriter.findExistingTxnIds(
+                committed.stream().map(JournalEntry::txnId).toList());
+        List<JournalEntry> missing = committed.stream()
+                .filter(entry -> !existing.contains(entry.txnId()))
+                .toList();
+        int inserted = insert(missing);
+        inDoubt += missing.size() - inserted;
+
+        logger.warn("Journal replay: {} entries found, {} inserted, {} already present, {} aborted, {} in doubt",
+                found.size(), inserted, committed.size() - missing.size(), aborted, inDoubt);
+
+        for (long sequence : segments) {
+            Files.deleteIfExists(segmentPath(sequence));
+        }
+    }
+
+    /**
+     * Decide the outcome of an entry whose marker was never written
+     *
+     * @return the outcome, or null if the account row cannot tell
+     */
+    private Outcome settle(JournalEntry entry) {
+        // In a read-write transaction, so it reads the primary: a lagging replica would show the
+        // account before the change and abort an entry that committed
+        Optional<Account> account = transactionOperations.execute(
+                status -> accountQueryRepository.findById(entry.subjectAccountId()));
+        if (account.isEmpty()) {
+            return Outcome.ABORTED;
+        }
+        long version = account.get().getVersion() != null ? account.get().getVersion() : 0;
+        if (version < entry.subjectVersion()) {
+            return Outcome.ABORTED;
+        }
+        if (version == entry.subjectVersion()
+                && account.get().getBalance().compareTo(entry.row().balanceAfter()) == 0) {
+            return Outcome.COMMITTED;
+        }
+        return null;
+    }
+
+    /**
+     * Insert the rows of committed entries.
+     *
+     * TransactionRecorder checks a posting's idempotency reference before
+     * appending, but the same key posted through two nodes at once can still
+     * reach the table twice. The second row then fails the unique reference
+     * index; rather than let it hold up every entry behind it, it is written
+     * to the in-doubt log and the rest of the batch is inserted.
+     *
+     * @return the number of rows inserted
+     */
+    private int insert(List<JournalEntry> entries) {
+        List<LedgerRow> rows = entries.stream().map(JournalEntry::row).toList();
+        try {
+            transactionOperations.executeWithoutResult(status -> transactionBatchWriter.insert(rows));
+            return rows.size();
+        } catch (DataIntegrityViolationException e) {
+            Set<String> taken = transactionBatchWriter.findExistingReferences(rows.stream()
+                    .map(LedgerRow::reference)
+                    .filter(Objects::nonNull)
+                    .toList());
+            if (taken.isEmpty()) {
+                throw e;
+            }
+            List<LedgerRow> kept = new ArrayList<>(rows.size());
+            for (JournalEntry entry : entries) {
+                if (entry.row().reference() != null && taken.contains(entry.row().reference())) {
+                    quarantine(entry, "repeats idempotency reference " + entry.row().reference());
+                } else {
+                    kept.add(entry.row());
+                }
+            }
+            transactionOperations.executeWithoutResult(status -> transactionBatchWriter.insert(kept));
+            return kept.size();
+        }
+    }
+
+    private void quarantine(JournalEntry entry, String reason) {
+        LedgerRow row = entry.row();
+        String line = String.join(",", row.txnId(), row.type().name(), row.amount().toPlainString(),
+                String.valueOf(row.fromAccountId()), String.valueOf(row.toAccountId()), row.timestamp().toString(),
+                row.balanceAfter().toPlainString(), String.valueOf(entry.subjectVersion())) + System.lineSeparator();
+        try {
+            Files.writeString(directory.resolve(IN_DOUBT_FILE), line, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + IN_DOUBT_FILE, e);
+        }
+        logger.warn("Journal entry {} {}; written to {}", row.txnId(), reason, IN_DOUBT_FILE);
+    }
+
+    private void scan(long sequence, int offset, Map<String, Pending> found) throws IOException {
+        Segment segment = Segment.open(segmentPath(sequence), sequence, segmentSize);
+        try {
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.position(offset);
+            while (buffer.remaining() >= Integer.BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length <= 0 || length + Integer.BYTES > buffer.remaining()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+                if (buffer.getInt() != checksum(record)) {
+                    // Torn write at the tail of the log
+                    break;
+                }
+                byte[] payload = Arrays.copyOfRange(record, 1, record.length);
+                if (record[0] == KIND_ENTRY) {
+                    JournalEntry entry = JournalEntry.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+                    found.put(entry.txnId(), new Pending(entry, new Position(sequence, start)));
+                } else {
+                    Pending entry = found.get(new String(payload, StandardCharsets.UTF_8));
+                    if (entry != null) {
+                        entry.outcome = record[0] == KIND_COMMITTED ? Outcome.COMMITTED : Outcome.ABORTED;
+                    }
+                }
+            }
+        } finally {
+            segment.close();
+        }
+    }
+
+    private Position write(byte kind, byte[] payload) {
+        int length = payload.length + 1;
+        int total = Integer.BYTES + length + Integer.BYTES;
+        if (total > segmentSize) {
+            throw new IllegalArgumentException("Journal record larger than a segment");
+        }
+        if (active.buffer.remaining() < total) {
+            roll();
+        }
+
+        byte[] record = new byte[length];
+        record[0] = kind;
+        System.arraycopy(payload, 0, record, 1, payload.length);
+
+        MappedByteBuffer buffer = active.buffer;
+        int start = buffer.position();
+        buffer.putInt(length);
+        buffer.put(record);
+        buffer.putInt(checksum(record));
+        written++;
+        return new Position(active.sequence, start);
+    }
+
+    private void roll() {
+        long nextSequence = active.sequence + 1;
+        active.close();
+        try {
+            active = Segment.open(segmentPath(nextSequence), nextSequence, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal segment " + nextSequence, e);
+        }
+    }
+
+    private void saveCheckpoint(Position position) {
+        try {
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temp, position.segment() + " " + position.offset());
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (checkpoint != null) {
+                for (long sequence = checkpoint.segment(); sequence < position.segment(); sequence++) {
+                    Files.deleteIfExists(segmentPath(sequence));
+                }
+            }
+            checkpoint = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write journal checkpoint", e);
+        }
+    }
+
+    private Optional<Position> loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        String[] parts = Files.readString(file).trim().split(" ");
+        return Optional.of(new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1])));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private enum Outcome {
+        COMMITTED, ABORTED
+    }
+
+    private record Position(long segment, int offset) {
+    }
+
+    private static final class Pending {
+        private final JournalEntry entry;
+        private final Position position;
+        private Outcome outcome;
+
+        private Pending(JournalEntry entry, Position position) {
+            this.entry = entry;
+            this.position = position;
+        }
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long sequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        Position end() {
+            return new Position(sequence, buffer.position());
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close journal segment {}", sequence, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.netbanking.app.ledger;
+
+/**
+ * Running balances and overdraft limits of a set of accounts, in minor units,
+ * held in an open-addressed table of primitive arrays keyed by account id.
+ *
+ * Balance checks and postings are long arithmetic with no allocation; amounts
+ * cross to and from BigDecimal only at the edges, through {@link MinorUnits}.
+ * The accounts table stays the record: an owner loads the rows it has locked,
+ * posts against them, writes the results back and discards the table.
+ * Capacity is fixed and the table is not thread-safe.
+ */
+public final class LedgerTable {
+
+    private static final long EMPTY = 0L;
+
+    private final int capacity;
+    private final long[] ids;
+    private final long[] balances;
+    private final long[] overdraftLimits;
+    private final int mask;
+    private int size;
+
+    public LedgerTable(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        // Power of two at least twice the capacity, so probes stay short
+        int slots = Integer.highestOneBit(this.capacity * 2 - 1) << 1;
+        this.ids = new long[slots];
+        this.balances = new long[slots];
+        this.overdraftLimits = new long[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Add an account, or reset one already present
+     *
+     * @throws IllegalStateException if the table already holds capacity accounts
+     */
+    public void load(long accountId, long balance, long overdraftLimit) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account ids must be positive: " + accountId);
+        }
+        int slot = probe(accountId);
+        if (ids[slot] == EMPTY) {
+            if (size == capacity) {
+                throw new IllegalStateException("Ledger table is full at " + capacity + " accounts");
+            }
+            ids[slot] = accountId;
+            size++;
+        }
+        balances[slot] = balance;
+        overdraftLimits[slot] = overdraftLimit;
+    }
+
+    public boolean contains(long accountId) {
+        return ids[probe(accountId)] == accountId;
+    }
+
+    public long balance(long accountId) {
+        return balances[slotOf(accountId)];
+    }
+
+    /**
+     * Balance plus overdraft limit
+     */
+    public long available(long accountId) {
+        int slot = slotOf(accountId);
+        return Math.addExact(balances[slot], overdraftLimits[slot]);
+    }
+
+    public boolean canDebit(long accountId, long amount) {
+        return available(accountId) >= amount;
+    }
+
+    /**
+     * @return the balance after the debit
+     * @throws IllegalArgumentException if the amount exceeds the available balance
+     */
+    public long debit(long accountId, long amount) {
+        int slot = slotOf(accountId);
+        if (Math.addExact(balances[slot], overdraftLimits[slot]) < amount) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        return balances[slot] = Math.subtractExact(balances[slot], amount);
+    }
+
+    /**
+     * @return the balance after the credit
+     */
+    public long credit(long accountId, long amount) {
+        int slot = slotOf(accountId);
+        return balances[slot] = Math.addExact(balances[slot], amount);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slotOf(long accountId) {
+        int slot = probe(accountId);
+        if (ids[slot] != accountId) {
+            throw new IllegalArgumentException("Account not loaded: " + accountId);
+        }
+        return slot;
+    }
+
+    /**
+     * The slot holding the id, or the empty slot where it would go
+     */
+    private int probe(long accountId) {
+        int slot = (int) ((accountId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (ids[slot] != EMPTY && ids[slot] != accountId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,42 @@
+package com.netbanking.app.ledger;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact conversion between decimal amounts and whole minor units (paise,
+ * cents).
+ *
+ * Balances are stored as DECIMAL(19,2), so stored balances convert exactly;
+ * a long holds anything up to about 9.2 * 10^16 major units. Amounts with a
+ * fraction of a minor unit, or beyond that range, are rejected rather than
+ * rounded.
+ */
+public final class MinorUnits {
+
+    /** Decimal places of a major unit, matching the scale of the accounts balance columns */
+    public static final int SCALE = 2;
+
+    private static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+    private MinorUnits() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has a fraction of a minor unit or does not fit a long
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Whether {@link #toMinor} accepts the amount
+     */
+    public static boolean isExact(BigDecimal amount) {
+        return amount.stripTrailingZeros().scale() <= SCALE && amount.abs().compareTo(MAX) <= 0;
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
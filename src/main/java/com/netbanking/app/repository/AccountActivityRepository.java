@@ -0,0 +1,60 @@
+package com.netbanking.app.repository;
+
+import com.netbanking.app.dormancy.DormantAccount;
+import com.netbanking.app.entity.AccountActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Last-activity rows behind dormancy sweeps
+ */
+@Repository
+public interface AccountActivityRepository extends JpaRepository<AccountActivity, Long> {
+
+    /**
+     * Move the accounts' last activity forward to {@code at}; never backwards
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AccountActivity a SET a.lastActivityAt = :at "
+            + "WHERE a.accountId IN :accountIds AND a.lastActivityAt < :at")
+    int touch(@Param("accountIds") Collection<Long> accountIds, @Param("at") LocalDateTime at);
+
+    /**
+     * The next batch of active accounts idle since before the cutoff, after a
+     * (lastActivityAt, accountId) keyset cursor. Reads a range of
+     * idx_account_activity_last, so each batch costs the same however far in.
+     */
+    @Query("SELECT new com.netbanking.app.dormancy.DormantAccount(act.accountId, a.accountNumber, act.lastActivityAt) "
+            + "FROM AccountActivity act JOIN Account a ON a.id = act.accountId "
+            + "WHERE act.lastActivityAt < :cutoff "
+            + "AND act.lastActivityAt >= :afterAt AND (act.lastActivityAt > :afterAt OR act.accountId > :afterId) "
+            + "AND a.status = com.banking.core.enums.Status.ACTIVE "
+            + "ORDER BY act.lastActivityAt, act.accountId")
+    List<DormantAccount> findIdleAfter(@Param("cutoff") LocalDateTime cutoff, @Param("afterAt") LocalDateTime afterAt,
+                                       @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Create rows for accounts opened outside the app services, seeded from
+     * their newest posting (or their opening date if they have none). Both
+     * lookups are served by the history indexes.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO account_activity (account_id, last_activity_at) "
+            + "SELECT a.id, GREATEST(COALESCE(a.created_at, CURRENT_TIMESTAMP), "
+            + "COALESCE((SELECT MAX(t.timestamp) FROM transactions t WHERE t.from_account_id = a.id), a.created_at, CURRENT_TIMESTAMP), "
+            + "COALESCE((SELECT MAX(t.timestamp) FROM transactions t WHERE t.to_account_id = a.id), a.created_at, CURRENT_TIMESTAMP)) "
+            + "FROM accounts a WHERE NOT EXISTS (SELECT 1 FROM account_activity x WHERE x.account_id = a.id)",
+            nativeQuery = true)
+    int insertMissing();
+}
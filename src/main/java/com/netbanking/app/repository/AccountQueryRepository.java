@@ -0,0 +1,101 @@
+package com.netbanking.app.repository;
+
+import com.banking.core.entity.Account;
+import com.netbanking.app.cache.AccountSummaryRow;
+import com.netbanking.app.cache.BalanceSnapshot;
+import com.netbanking.app.dto.AccountDto;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Account lookups that fold the ownership check into the query itself,
+ * so a request costs one indexed SELECT instead of user + account loads
+ */
+@Repository
+public interface AccountQueryRepository extends JpaRepository<Account, Long> {
+
+    String ACCOUNT_VIEW_SELECT = "SELECT new com.netbanking.app.dto.AccountDto(a.id, a.accountNumber, a.accountType, "
+            + "a.balance, a.currency, a.overdraftLimit, a.interestRate, a.status, b.name, b.ifsc, a.createdAt, a.updatedAt) "
+            + "FROM Account a JOIN a.branch b ";
+
+    @EntityGraph(attributePaths = "branch")
+    Optional<Account> findByAccountNumberAndUserId(String accountNumber, Long userId);
+
+    @EntityGraph(attributePaths = "branch")
+    Optional<Account> findWithBranchByAccountNumber(String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "branch")
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber AND a.user.id = :userId")
+    Optional<Account> findForUpdateByAccountNumberAndUserId(@Param("accountNumber") String accountNumber,
+                                                           @Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "branch")
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findForUpdateWithBranchByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findForUpdateByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllForUpdateByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    /**
+     * Balance with the owner id, so one cached entry serves both owner and admin reads
+     */
+    @Query("SELECT new com.netbanking.app.cache.BalanceSnapshot(a.user.id, a.balance, a.version) "
+            + "FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<BalanceSnapshot> findBalanceSnapshotByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber AND a.user.id = :userId")
+    Optional<Long> findIdByAccountNumberAndUserId(@Param("accountNumber") String accountNumber,
+                                                  @Param("userId") Long userId);
+
+    @Query("SELECT new com.netbanking.app.cache.AccountSummaryRow(a.id, a.accountType, a.status, a.balance, a.version) "
+            + "FROM Account a WHERE a.user.id = :userId")
+    List<AccountSummaryRow> findSummaryRowsByUserId(@Param("userId") Long userId);
+
+    /**
+     * One page of a user's accounts with branch columns joined in. Returned as a
+     * Slice so no count query runs.
+     */
+    @Query(ACCOUNT_VIEW_SELECT + "WHERE a.user.id = :userId")
+    Slice<AccountDto> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Same page plus the total, for clients that asked for it
+     */
+    @Query(value = ACCOUNT_VIEW_SELECT + "WHERE a.user.id = :userId",
+            countQuery = "SELECT COUNT(a) FROM Account a WHERE a.user.id = :userId")
+    Page<AccountDto> findViewPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * The slice of a user's accounts after a keyset cursor, newest first
+     */
+    @Query(ACCOUNT_VIEW_SELECT + "WHERE a.user.id = :userId "
+            + "AND a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) "
+            + "ORDER BY a.user.id DESC, a.createdAt DESC, a.id DESC")
+    Slice<AccountDto> findViewsByUserIdBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id, Pageable pageable);
+}
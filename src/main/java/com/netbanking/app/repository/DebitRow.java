@@ -0,0 +1,10 @@
+package com.netbanking.app.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One debit from an account, as needed to rebuild its rolling daily total
+ */
+public record DebitRow(LocalDateTime timestamp, BigDecimal amount) {
+}
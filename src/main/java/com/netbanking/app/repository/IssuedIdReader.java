@@ -0,0 +1,93 @@
+package com.netbanking.app.repository;
+
+import com.netbanking.app.util.IssuedIds;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Reads back the ids a node has issued from the tables that hold them.
+ *
+ * Each query keeps to the generated format of its node (length, prefix and
+ * the node digit's position), so ids from other nodes and numbers issued by
+ * the core generator are left out. Transactions are bounded below by id so
+ * the query is a short range scan of the txn_id index rather than a full one.
+ * Runs on the primary (not read-only) so a lagging replica cannot hide the
+ * latest ids.
+ */
+@Component
+@Transactional
+public class IssuedIdReader implements IssuedIds {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public IssuedIdReader(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<String> lastTransactionIdAfter(int nodeId, String after) {
+        return first(entityManager.createQuery(
+                        "SELECT t.txnId FROM Transaction t WHERE t.txnId > :after AND t.txnId LIKE 'TXN%' "
+                                + "AND LENGTH(t.txnId) = 24 AND SUBSTRING(t.txnId, 19, 1) = :node "
+                                + "ORDER BY t.txnId DESC", String.class)
+                .setParameter("after", after)
+                .setParameter("node", String.valueOf(nodeId))
+                .setMaxResults(1)
+                .getResultList());
+    }
+
+    @Override
+    public Optional<String> lastAccountNumber(int nodeId) {
+        // Ordered past the type code, so the latest number of any account type wins
+        return first(entityManager.createQuery(
+                        "SELECT a.accountNumber FROM Account a WHERE a.accountNumber LIKE '1234%' "
+                                + "AND LENGTH(a.accountNumber) = 20 AND SUBSTRING(a.accountNumber, 17, 1) = :node "
+                                + "ORDER BY SUBSTRING(a.accountNumber, 7) DESC", String.class)
+                .setParameter("node", String.valueOf(nodeId))
+                .setMaxResults(1)
+                .getResultList());
+    }
+
+    @Override
+    public Optional<String> lastLoanNumber(int nodeId) {
+        return Optional.ofNullable(entityManager.createQuery(
+                        "SELECT MAX(l.loanNumber) FROM Loan l WHERE l.loanNumber LIKE 'LN%' "
+                                + "AND LENGTH(l.loanNumber) = 14 AND SUBSTRING(l.loanNumber, 7, 1) = :node", String.class)
+                .setParameter("node", String.valueOf(nodeId))
+                .getSingleResult());
+    }
+
+    @Override
+    public Optional<String> lastPolicyNumber(int nodeId) {
+        return Optional.ofNullable(entityManager.createQuery(
+                        "SELECT MAX(p.policyNumber) FROM InsuranceApplication p WHERE p.policyNumber LIKE 'POL%' "
+                                + "AND LENGTH(p.policyNumber) = 15 AND SUBSTRING(p.policyNumber, 8, 1) = :node", String.class)
+                .setParameter("node", String.valueOf(nodeId))
+                .getSingleResult());
+    }
+
+    /**
+     * Materialized, as the caller reads it after this transaction ends; one
+     * short column for each card the node issued
+     */
+    @Override
+    public Stream<String> cardNumbers(int nodeId) {
+        return entityManager.createQuery(
+                        "SELECT c.cardNumber FROM CreditCard c WHERE c.cardNumber LIKE :prefix "
+                                + "AND LENGTH(c.cardNumber) = 16", String.class)
+                .setParameter("prefix", "4" + nodeId + "%")
+                .getResultList()
+                .stream();
+    }
+
+    private static Optional<String> first(List<String> results) {
+        return results.stream().findFirst();
+    }
+}
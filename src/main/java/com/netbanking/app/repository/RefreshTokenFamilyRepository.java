@@ -0,0 +1,53 @@
+package com.netbanking.app.repository;
+
+import com.netbanking.app.entity.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Refresh token families; rotation and revocation are single conditional UPDATEs
+ */
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, Long> {
+
+    /**
+     * Advance a live family from the given generation to the next one.
+     *
+     * @return 1 if rotated, 0 if the family is revoked, expired or already past that generation
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.generation = f.generation + 1, f.expiresAt = :expiresAt "
+            + "WHERE f.id = :id AND f.generation = :generation AND f.revokedAt IS NULL AND f.expiresAt > :now")
+    int rotate(@Param("id") Long id, @Param("generation") int generation, @Param("now") LocalDateTime now,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * @return 1 if the family was live and is now revoked, 0 if it was already revoked or does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revokedAt = :at WHERE f.id = :id AND f.revokedAt IS NULL")
+    int revoke(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    /**
+     * Families revoked at or after the given time; read off idx_refresh_family_revoked.
+     * Not read-only, so it runs on the primary: a lagging replica would let a
+     * revoked family's access tokens through until the next rebuild.
+     */
+    @Transactional
+    @Query("SELECT f.id FROM RefreshTokenFamily f WHERE f.revokedAt >= :since")
+    List<Long> findIdsRevokedSince(@Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,113 @@
+package com.netbanking.app.repository;
+
+import com.banking.core.enums.TransactionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts ledger rows with JDBC batching.
+ *
+ * Transaction ids are IDENTITY columns, which stops Hibernate from batching
+ * inserts, so bulk settlement and the journal drainer write the rows through
+ * JdbcTemplate instead. Callers supply the surrounding transaction.
+ */
+@Repository
+public class TransactionBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO transactions (txn_id, txn_type, amount, currency, "
+            + "from_account_id, to_account_id, timestamp, narration, balance_after, fee, reference_number, "
+            + "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public TransactionBatchWriter(JdbcTemplate jdbcTemplate,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchSize = batchSize;
+    }
+
+    public void insert(List<LedgerRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (ps, row) -> {
+            Timestamp now = Timestamp.valueOf(row.timestamp());
+            ps.setString(1, row.txnId());
+            ps.setString(2, row.type().name());
+            ps.setBigDecimal(3, row.amount());
+            ps.setString(4, row.currency());
+            setId(ps, 5, row.fromAccountId());
+            setId(ps, 6, row.toAccountId());
+            ps.setTimestamp(7, now);
+            ps.setString(8, row.narration());
+            ps.setBigDecimal(9, row.balanceAfter());
+            ps.setBigDecimal(10, BigDecimal.ZERO);
+            ps.setString(11, row.reference());
+            ps.setTimestamp(12, now);
+            ps.setTimestamp(13, now);
+        });
+    }
+
+    /**
+     * Which of the given txn ids already have a row, so replays stay idempotent
+     */
+    public Set<String> findExistingTxnIds(Collection<String> txnIds) {
+        return findExisting("SELECT txn_id FROM transactions WHERE txn_id IN (:values)", txnIds);
+    }
+
+    /**
+     * Which of the given idempotency references already have a row
+     */
+    public Set<String> findExistingReferences(Collection<String> references) {
+        return findExisting("SELECT reference_number FROM transactions WHERE reference_number IN (:values)",
+                references);
+    }
+
+    private Set<String> findExisting(String sql, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        List<String> list = new ArrayList<>(values);
+        for (int start = 0; start < list.size(); start += batchSize) {
+            MapSqlParameterSource params = new MapSqlParameterSource("values",
+                    list.subList(start, Math.min(start + batchSize, list.size())));
+            existing.addAll(namedJdbcTemplate.queryForList(sql, params, String.class));
+        }
+        return existing;
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if (id != null) {
+            ps.setLong(index, id);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    /**
+     * One ledger row; balanceAfter is the source balance, as for single
+     * transfers, and reference is the posting's idempotency reference, if any
+     */
+    public record LedgerRow(String txnId, TransactionType type, BigDecimal amount, String currency, Long fromAccountId,
+                     Long toAccountId, LocalDateTime timestamp, String narration, BigDecimal balanceAfter,
+                     String reference) {
+    }
+}
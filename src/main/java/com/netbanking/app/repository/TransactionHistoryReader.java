@@ -0,0 +1,50 @@
+package com.netbanking.app.repository;
+
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.dto.TransactionDto;
+import com.netbanking.app.util.MergedStreams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * An account's transactions over a period, newest first, as one stream.
+ *
+ * Replaces the core {@code fromAccount = :account OR toAccount = :account}
+ * history queries: the sent and received sides are streamed from their own
+ * indexes and merged as they are read, so neither side is materialized.
+ * The stream holds two open result sets; call it inside a transaction and
+ * close it (try-with-resources).
+ */
+@Component
+public class TransactionHistoryReader {
+
+    public static final Comparator<TransactionDto> NEWEST_FIRST = Comparator
+            .comparing(TransactionDto::getTimestamp)
+            .thenComparing(TransactionDto::getId)
+            .reversed();
+
+    private final TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    public TransactionHistoryReader(TransactionQueryRepository transactionQueryRepository) {
+        this.transactionQueryRepository = transactionQueryRepository;
+    }
+
+    /**
+     * @param type only transactions of this type, or null for all
+     */
+    public Stream<TransactionDto> stream(Long accountId, LocalDateTime from, LocalDateTime to, TransactionType type) {
+        Stream<TransactionDto> sent = transactionQueryRepository.streamSent(accountId, from, to, type);
+        try {
+            return MergedStreams.merge(NEWEST_FIRST, sent,
+                    transactionQueryRepository.streamReceived(accountId, from, to, type));
+        } catch (RuntimeException e) {
+            sent.close();
+            throw e;
+        }
+    }
+}
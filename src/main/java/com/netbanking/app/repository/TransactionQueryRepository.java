@@ -0,0 +1,87 @@
+package com.netbanking.app.repository;
+
+import com.banking.core.entity.Transaction;
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.dto.TransactionDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paged and streamed transaction history.
+ *
+ * An account's history is the union of rows it sent and rows it received.
+ * Each side is read separately so it can seek through its own
+ * (account, timestamp, id) index instead of an OR that no single index
+ * serves; the caller merges the two sides (see {@link TransactionHistoryReader}).
+ */
+@Repository
+public interface TransactionQueryRepository extends JpaRepository<Transaction, Long> {
+
+    String TRANSACTION_VIEW_SELECT = "SELECT new com.netbanking.app.dto.TransactionDto(t.id, t.txnId, t.txnType, "
+            + "t.amount, t.currency, f.accountNumber, ta.accountNumber, t.timestamp, t.narration, t.balanceAfter) "
+            + "FROM Transaction t LEFT JOIN t.fromAccount f LEFT JOIN t.toAccount ta ";
+
+    /**
+     * (timestamp, id) < (:timestamp, :id), with the redundant {@code <=} bound
+     * that lets the index range-scan from the cursor
+     */
+    String BEFORE_CURSOR = "AND t.timestamp <= :timestamp AND (t.timestamp < :timestamp OR t.id < :id) ";
+
+    // The constant account column leads the ORDER BY so it matches the index and the sort is skipped
+    @Query(TRANSACTION_VIEW_SELECT + "WHERE t.fromAccount.id = :accountId " + BEFORE_CURSOR
+            + "ORDER BY t.fromAccount.id DESC, t.timestamp DESC, t.id DESC")
+    Slice<TransactionDto> findSentBefore(@Param("accountId") Long accountId, @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("id") Long id, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW_SELECT + "WHERE t.toAccount.id = :accountId " + BEFORE_CURSOR
+            + "ORDER BY t.toAccount.id DESC, t.timestamp DESC, t.id DESC")
+    Slice<TransactionDto> findReceivedBefore(@Param("accountId") Long accountId,
+                                             @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Conditions for one side of an account's history over [from, to), optionally of one type
+     */
+    String IN_PERIOD = "AND t.timestamp >= :from AND t.timestamp < :to AND (:type IS NULL OR t.txnType = :type) ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_VIEW_SELECT + "WHERE t.fromAccount.id = :accountId " + IN_PERIOD
+            + "ORDER BY t.fromAccount.id DESC, t.timestamp DESC, t.id DESC")
+    Stream<TransactionDto> streamSent(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to, @Param("type") TransactionType type);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_VIEW_SELECT + "WHERE t.toAccount.id = :accountId " + IN_PERIOD
+            + "ORDER BY t.toAccount.id DESC, t.timestamp DESC, t.id DESC")
+    Stream<TransactionDto> streamReceived(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to, @Param("type") TransactionType type);
+
+    /**
+     * Money that left an account since the given time; read off the
+     * (from_account_id, timestamp, id) index
+     */
+    @Query("SELECT new com.netbanking.app.repository.DebitRow(t.timestamp, t.amount) FROM Transaction t "
+            + "WHERE t.fromAccount.id = :accountId AND t.timestamp >= :since "
+            + "ORDER BY t.fromAccount.id DESC, t.timestamp DESC, t.id DESC")
+    List<DebitRow> findDebitsSince(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+
+    /**
+     * Whether a posting with this idempotency reference committed; read off
+     * the unique reference_number index. Not read-only, so it runs on the
+     * primary: a replica behind the original posting would post it again.
+     */
+    @Transactional
+    boolean existsByReferenceNumber(String referenceNumber);
+}
@@ -0,0 +1,35 @@
+package com.netbanking.app.repository;
+
+import com.banking.core.entity.User;
+import com.banking.core.enums.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Narrow, projection-only user queries used by the web layer
+ */
+@Repository
+public interface UserQueryRepository extends JpaRepository<User, Long> {
+
+    // Not read-only, so it runs on the primary: the revocation refresh relies on seeing every committed change
+    @Transactional
+    @Query("SELECT u.id FROM User u WHERE u.status <> :status")
+    List<Long> findIdsByStatusNot(@Param("status") Status status);
+
+    /**
+     * Replace a password hash, unless the password was changed since the old hash was read
+     *
+     * @return 1 if replaced, 0 if the stored hash is no longer the old one
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.email = :email AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("email") String email, @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
+}
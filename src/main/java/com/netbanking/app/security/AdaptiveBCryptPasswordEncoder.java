@@ -0,0 +1,92 @@
+package com.netbanking.app.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt at a cost tuned to this machine, which asks for a rehash whenever a
+ * stored hash was made at a different cost.
+ *
+ * Hashes keep the plain modular crypt format ($2a$NN$...), which records the
+ * cost it was made with, so banking-core's PasswordUtil still verifies them.
+ * Stored hashes cheaper than the target are always upgraded. Dearer ones are
+ * only downgraded when more than one step above it, so nodes on slightly
+ * different hardware don't rehash the same user back and forth.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+
+    public AdaptiveBCryptPasswordEncoder(int cost) {
+        this.cost = cost;
+        this.delegate = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * An encoder at the highest cost whose hashing fits the target time on
+     * this machine, clamped to [minCost, maxCost]
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(Duration target, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        // Each step up doubles the work
+        int steps = 0;
+        while (minCost + steps < maxCost && fastest << (steps + 1) <= target.toNanos()) {
+            steps++;
+        }
+        int cost = minCost + steps;
+        logger.info("BCrypt cost {} at {} ms per hash at cost {} (target {} ms)", cost,
+                Duration.ofNanos(fastest).toMillis(), minCost, target.toMillis());
+        return new AdaptiveBCryptPasswordEncoder(cost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = costOf(encodedPassword);
+        return stored >= 0 && (stored < cost || stored > cost + 1);
+    }
+
+    /**
+     * The cost a BCrypt hash was made with, or -1 if it is not a BCrypt hash
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.netbanking.app.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+
+/**
+ * Stores the rehash made after a successful sign-in, but never fails the
+ * sign-in over it: the password is already verified, so if the store fails
+ * the old hash is kept and the next sign-in tries again
+ */
+public class BestEffortPasswordUpgrade implements UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestEffortPasswordUpgrade.class);
+
+    private final UserDetailsPasswordService delegate;
+
+    public BestEffortPasswordUpgrade(UserDetailsPasswordService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            return delegate.updatePassword(user, newPassword);
+        } catch (RuntimeException e) {
+            logger.warn("Skipped password rehash for user {}: {}", user.getUsername(), e.toString());
+            return user;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.netbanking.app.security;
 
 import com.netbanking.app.util.JwtUtil;
+import com.netbanking.app.util.ParsedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,10 +15,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * JWT Authentication Filter
@@ -29,11 +30,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final UserRevocationRegistry revocationRegistry;
+    private final RevokedTokenFamilies revokedTokenFamilies;
 
     @Autowired
-    public JwtAuthenticationFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil,
+                                   PrincipalCache principalCache, UserRevocationRegistry revocationRegistry,
+                                   RevokedTokenFamilies revokedTokenFamilies) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.revokedTokenFamilies = revokedTokenFamilies;
     }
 
     @Override
@@ -43,25 +52,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String jwt = getJwtFromRequest(request);
-            
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-                    
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    
-                    logger.debug("Set Authentication in SecurityContextHolder for user: {}", username);
+            Optional<ParsedToken> parsedToken = jwtUtil.parseToken(jwt);
+
+            // Refresh tokens are only accepted by /auth/refresh, never as bearer credentials
+            if (parsedToken.isPresent() && parsedToken.get().isAccessToken()) {
+                ParsedToken token = parsedToken.get();
+                String username = token.getSubject();
+
+                // Signed out, or its refresh token family was caught being reused
+                Long familyId = token.getFamilyId();
+                if (familyId != null && revokedTokenFamilies.isRevoked(familyId)) {
+                    logger.debug("Rejected token from revoked family {} for user: {}", familyId, username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                UserDetails userDetails = resolvePrincipal(token);
+                if (userDetails == null) {
+                    logger.debug("Rejected token for revoked user: {}", username);
+                    filterChain.doFilter(request, response);
+                    return;
                 }
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities()
+                        );
+
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+
+                logger.debug("Set Authentication in SecurityContextHolder for user: {}", username);
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -70,6 +93,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Self-contained tokens are trusted as signed, subject to the revocation
+     * list; anything else goes through the principal cache and then the DB.
+     */
+    private UserDetails resolvePrincipal(ParsedToken token) {
+        if (jwtUtil.isSelfContained() && token.hasUserClaims()) {
+            return revocationRegistry.isRevoked(token.getUserId())
+                    ? null
+                    : UserDetailsServiceImpl.UserPrincipal.fromToken(token);
+        }
+
+        String username = token.getSubject();
+        UserDetails userDetails = principalCache.get(username);
+        if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(username);
+            principalCache.put(username, userDetails, token.getExpiration());
+        }
+        return userDetails;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         return jwtUtil.extractTokenFromHeader(bearerToken);
@@ -0,0 +1,130 @@
+package com.netbanking.app.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Small fixed pool that runs password hashing and verification, so a burst of
+ * sign-in attempts queues here instead of holding every request thread on
+ * BCrypt.
+ *
+ * The queue is bounded: work that finds it full, or that waited longer than
+ * banking.security.login.max-queue-time before a thread picked it up, fails
+ * with {@link RejectedExecutionException} straight away. Queue time, rejections
+ * and pool gauges are published to Actuator as
+ * {@code banking.login.verification.*} and {@code executor.*} with
+ * {@code name=login-verification}.
+ */
+@Component
+public class PasswordVerificationPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerificationPool.class);
+
+    private static final String NAME = "login-verification";
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueNanos;
+    private final Timer queueTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordVerificationPool(@Value("${banking.security.login.verification-threads:0}") int threads,
+                                    @Value("${banking.security.login.queue-capacity:64}") int queueCapacity,
+                                    @Value("${banking.security.login.max-queue-time:2s}") Duration maxQueueTime,
+                                    MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new VerificationThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueNanos = maxQueueTime.toNanos();
+        this.queueTimer = Timer.builder("banking.login.verification.queue")
+                .description("Time password verifications wait for a pool thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("banking.login.verification.rejected")
+                .description("Password verifications turned away because the pool was saturated")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Run the work on the pool and wait for its result
+     *
+     * @throws RejectedExecutionException if the pool is saturated
+     */
+    public <T> T run(Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                queueTimer.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueNanos) {
+                    // The caller has likely given up by now; don't spend BCrypt on it
+                    throw new RejectedExecutionException("Queued for " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms");
+                }
+                return work.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.debug("Password verification queue full");
+            throw e;
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException) {
+                rejected.increment();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for password verification", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class VerificationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, NAME + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
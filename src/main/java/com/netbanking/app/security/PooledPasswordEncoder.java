@@ -0,0 +1,37 @@
+package com.netbanking.app.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs a password encoder's verification on the {@link PasswordVerificationPool}.
+ *
+ * Only {@code matches} is pooled: it is what an anonymous caller can trigger
+ * at will through sign-in. Hashing a new password happens on the caller's
+ * thread, so registration and password changes are not turned away when
+ * sign-in load fills the pool.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordVerificationPool pool;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordVerificationPool pool) {
+        this.delegate = delegate;
+        this.pool = pool;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return pool.run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,118 @@
+package com.netbanking.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Bounded cache of verified JWT principals keyed by token subject.
+ *
+ * Entries live until the token that loaded them expires or the configured TTL
+ * elapses, whichever comes first. Hit/miss counters are published to Actuator
+ * under the {@code cache.gets} metric with {@code cache=jwt-principals}.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String CACHE_NAME = "jwt-principals";
+
+    private final boolean enabled;
+    private final Cache<String, CachedPrincipal> cache;
+
+    @Autowired
+    public PrincipalCache(@Value("${banking.security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${banking.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${banking.security.principal-cache.ttl:300s}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this(enabled, maxSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    PrincipalCache(boolean enabled, long maxSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(maxSize)
+                .expireAfter(new TokenBoundExpiry(ttl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get the cached principal for a token subject, or null on a miss
+     */
+    public UserDetails get(String username) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPrincipal cached = cache.getIfPresent(username);
+        return cached != null ? cached.principal : null;
+    }
+
+    /**
+     * Cache a freshly loaded principal until the given token expiry
+     */
+    public void put(String username, UserDetails userDetails, Date tokenExpiration) {
+        if (!enabled || !(userDetails instanceof UserDetailsServiceImpl.UserPrincipal principal)) {
+            return;
+        }
+        // The filter never needs the password hash, so keep it out of the heap
+        UserDetailsServiceImpl.UserPrincipal withoutPassword = new UserDetailsServiceImpl.UserPrincipal(
+                principal.getId(),
+                principal.getUsername(),
+                null,
+                principal.getAuthorities(),
+                principal.isEnabled(),
+                principal.getStatus()
+        );
+        cache.put(username, new CachedPrincipal(withoutPassword, tokenExpiration.getTime()));
+    }
+
+    /**
+     * Drop the cached principal for a user whose status, role or credentials changed
+     */
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private record CachedPrincipal(UserDetailsServiceImpl.UserPrincipal principal, long tokenExpiresAtMillis) {
+    }
+
+    /**
+     * Expires each entry at min(ttl, remaining token lifetime)
+     */
+    private record TokenBoundExpiry(long ttlNanos) implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+            long remainingMillis = value.tokenExpiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, Duration.ofMillis(remainingMillis).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
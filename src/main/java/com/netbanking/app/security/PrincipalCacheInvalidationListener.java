@@ -0,0 +1,112 @@
+package com.netbanking.app.security;
+
+import com.banking.core.entity.User;
+import com.banking.core.enums.Status;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached principals once a change to a {@link User} row has committed,
+ * and keeps the self-contained token revocation list and the unknown-email
+ * cache in step.
+ *
+ * UserService lives in banking-core, so instead of hooking its methods this
+ * listens to Hibernate commit events and covers every update path (status,
+ * role, password, email).
+ */
+@Component
+public class PrincipalCacheInvalidationListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCacheInvalidationListener.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PrincipalCache principalCache;
+    private final UserRevocationRegistry revocationRegistry;
+    private final UnknownEmailCache unknownEmailCache;
+
+    @Autowired
+    public PrincipalCacheInvalidationListener(EntityManagerFactory entityManagerFactory, PrincipalCache principalCache,
+                                              UserRevocationRegistry revocationRegistry,
+                                              UnknownEmailCache unknownEmailCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.unknownEmailCache = unknownEmailCache;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            unknownEmailCache.evict(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            // Evict under the old email too in case the address itself changed
+            Object[] oldState = event.getOldState();
+            if (oldState != null) {
+                int emailIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("email");
+                principalCache.evict((String) oldState[emailIndex]);
+            }
+            principalCache.evict(user.getEmail());
+            unknownEmailCache.evict(user.getEmail());
+            revocationRegistry.statusChanged(user.getId(), user.getStatus());
+            logger.debug("Evicted cached principal for user: {}", user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            principalCache.evict(user.getEmail());
+            revocationRegistry.statusChanged(user.getId(), Status.CLOSED);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // The email still belongs to no one
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, so the cached principal is still accurate
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, so the cached principal is still accurate
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return User.class.isAssignableFrom(persister.getMappedClass());
+    }
+}
@@ -0,0 +1,99 @@
+package com.netbanking.app.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces banking.security.rate-limit with token buckets.
+ *
+ * Runs after {@link JwtAuthenticationFilter}: authenticated requests are
+ * limited per user, anonymous ones per client IP. {@code /auth/login} has its
+ * own, much smaller per-IP budget, so password guessing is throttled before
+ * it reaches BCrypt and the user table. Rejected requests get a 429 with
+ * {@code Retry-After} in seconds.
+ *
+ * The client IP is {@code getRemoteAddr()}, which server.forward-headers-strategy
+ * resolves from the X-Forwarded-For of a trusted proxy, so clients behind the
+ * load balancer do not all share its address and one login budget.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String LOGIN_PATH = "/auth/login";
+
+    private final boolean enabled;
+    private final TokenBucketLimiter requestLimiter;
+    private final TokenBucketLimiter loginLimiter;
+
+    @Autowired
+    public RateLimitFilter(@Value("${banking.security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${banking.security.rate-limit.requests-per-minute:100}") int requestsPerMinute,
+                           @Value("${banking.security.rate-limit.login-requests-per-minute:10}") int loginRequestsPerMinute) {
+        this.enabled = enabled;
+        this.requestLimiter = new TokenBucketLimiter(requestsPerMinute, System::nanoTime);
+        this.loginLimiter = new TokenBucketLimiter(loginRequestsPerMinute, System::nanoTime);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = isLogin(request)
+                ? loginLimiter.tryAcquire(request.getRemoteAddr())
+                : requestLimiter.tryAcquire(clientKey(request));
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            logger.debug("Rate limited {} {} from {}", request.getMethod(), request.getRequestURI(),
+                    request.getRemoteAddr());
+            response.setStatus(429);
+            response.setHeader("Retry-After", Long.toString(retryAfter));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.security.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        requestLimiter.evictIdle();
+        loginLimiter.evictIdle();
+    }
+
+    /**
+     * The user for authenticated requests, else the client address. Both are
+     * strings the container or security context already holds.
+     */
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                ? authentication.getName()
+                : request.getRemoteAddr();
+    }
+
+    private static boolean isLogin(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int offset = request.getContextPath().length();
+        return uri.length() == offset + LOGIN_PATH.length()
+                && uri.startsWith(LOGIN_PATH, offset);
+    }
+}
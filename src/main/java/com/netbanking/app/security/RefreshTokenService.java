@@ -0,0 +1,123 @@
+package com.netbanking.app.security;
+
+import com.netbanking.app.entity.RefreshTokenFamily;
+import com.netbanking.app.repository.RefreshTokenFamilyRepository;
+import com.netbanking.app.util.JwtUtil;
+import com.netbanking.app.util.ParsedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Issues, rotates and revokes refresh token families.
+ *
+ * A sign-in starts a family; each refresh moves it to the next generation
+ * and hands out a new refresh token, so only the newest one works. Using an
+ * older one revokes the family: either the client or an attacker is holding
+ * a copied token, and neither can be told apart. Two refreshes racing with
+ * the same token count as reuse too.
+ *
+ * Revocations reach {@link RevokedTokenFamilies} as soon as the UPDATE has
+ * run, so the family's access tokens stop working on this node right away.
+ */
+@Component
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final RevokedTokenFamilies revokedTokenFamilies;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final JwtUtil jwtUtil;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenFamilyRepository refreshTokenFamilyRepository,
+                               RevokedTokenFamilies revokedTokenFamilies,
+                               UserDetailsServiceImpl userDetailsService, JwtUtil jwtUtil) {
+        this.refreshTokenFamilyRepository = refreshTokenFamilyRepository;
+        this.revokedTokenFamilies = revokedTokenFamilies;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Start a family for a fresh sign-in
+     */
+    @Transactional
+    public IssuedTokens issue(UserDetailsServiceImpl.UserPrincipal principal) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshTokenFamily family = refreshTokenFamilyRepository.save(
+                new RefreshTokenFamily(principal.getId(), now, now.plus(refreshTokenLifetime())));
+        return tokens(principal, family.getId(), family.getGeneration());
+    }
+
+    /**
+     * Exchange the current refresh token of a live family for the next pair
+     *
+     * @return empty if the token is not a refresh token, or is not the family's current one
+     */
+    @Transactional
+    public Optional<IssuedTokens> rotate(ParsedToken token) {
+        Long familyId = token.getFamilyId();
+        Integer generation = token.getGeneration();
+        if (!token.isRefreshToken() || familyId == null || generation == null) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshTokenFamilyRepository.rotate(familyId, generation, now, now.plus(refreshTokenLifetime())) == 0) {
+            // Signed by us, so the family existed at this generation: it has moved on, or is revoked
+            if (refreshTokenFamilyRepository.revoke(familyId, now) > 0) {
+                revokedTokenFamilies.revoked(familyId);
+                logger.warn("Refresh token reuse for token family {} of {}; family revoked", familyId,
+                        token.getSubject());
+            }
+            return Optional.empty();
+        }
+
+        UserDetailsServiceImpl.UserPrincipal principal =
+                (UserDetailsServiceImpl.UserPrincipal) userDetailsService.loadUserByUsername(token.getSubject());
+        return Optional.of(tokens(principal, familyId, generation + 1));
+    }
+
+    /**
+     * Revoke the family an access or refresh token belongs to, if any
+     */
+    @Transactional
+    public void revoke(ParsedToken token) {
+        Long familyId = token.getFamilyId();
+        if (familyId != null && refreshTokenFamilyRepository.revoke(familyId, LocalDateTime.now()) > 0) {
+            revokedTokenFamilies.revoked(familyId);
+            logger.debug("Revoked token family {} of {}", familyId, token.getSubject());
+        }
+    }
+
+    /**
+     * Drop families whose refresh tokens expired longer ago than any access token issued from them lives
+     */
+    @Scheduled(fixedDelayString = "${banking.security.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenFamilyRepository.deleteExpiredBefore(
+                LocalDateTime.now().minus(Duration.ofMillis(jwtUtil.getExpiration())));
+        logger.debug("Purged {} expired token families", purged);
+    }
+
+    private IssuedTokens tokens(UserDetailsServiceImpl.UserPrincipal principal, long familyId, int generation) {
+        return new IssuedTokens(jwtUtil.generateToken(principal, familyId),
+                jwtUtil.generateRefreshToken(principal.getUsername(), familyId, generation));
+    }
+
+    private Duration refreshTokenLifetime() {
+        return Duration.ofMillis(jwtUtil.getRefreshExpiration());
+    }
+
+    public record IssuedTokens(String accessToken, String refreshToken) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.netbanking.app.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-capacity set of positive long ids: a Bloom filter in front of an
+ * open-addressed table.
+ *
+ * The filter (10 bits per id, about 1% false positives when full) is small
+ * enough to stay in cache, and rejects almost every id that was never added
+ * after a few word reads; the table answers the rest exactly, at 16 bytes
+ * or less per id. Reads are lock-free; adds must come from one thread at a
+ * time. There are no removals: the owner rebuilds the index instead.
+ */
+final class RevokedFamilyIndex {
+
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ID = 10;
+    private static final long EMPTY = 0L;
+
+    private final int capacity;
+    private final AtomicLongArray filter;
+    private final long filterBits;
+    private final AtomicLongArray table;
+    private final int mask;
+    private int size;
+
+    RevokedFamilyIndex(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        int words = (int) ((this.capacity * (long) BITS_PER_ID + 63) / 64);
+        this.filter = new AtomicLongArray(words);
+        this.filterBits = words * 64L;
+        // Power of two at least twice the capacity, so probes stay short
+        int slots = Integer.highestOneBit(this.capacity * 2 - 1) << 1;
+        this.table = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+    }
+
+    boolean contains(long id) {
+        long hash = mix(id);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, filterBits);
+            if ((filter.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            long value = table.get(slot);
+            if (value == id) {
+                return true;
+            }
+            if (value == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return false if the index is full and the id was not added; see {@link #grow()}
+     */
+    boolean add(long id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ids must be positive: " + id);
+        }
+        long hash = mix(id);
+        int slot = (int) hash & mask;
+        for (long value; (value = table.get(slot)) != EMPTY; slot = (slot + 1) & mask) {
+            if (value == id) {
+                return true;
+            }
+        }
+        if (size >= capacity) {
+            return false;
+        }
+        // Table first, so a reader that passes the filter always finds the id
+        table.set(slot, id);
+        size++;
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, filterBits);
+            int word = (int) (bit >>> 6);
+            filter.set(word, filter.get(word) | (1L << bit));
+        }
+        return true;
+    }
+
+    /**
+     * A copy with twice the capacity
+     */
+    RevokedFamilyIndex grow() {
+        RevokedFamilyIndex grown = new RevokedFamilyIndex(capacity * 2);
+        for (int slot = 0; slot < table.length(); slot++) {
+            long value = table.get(slot);
+            if (value != EMPTY) {
+                grown.add(value);
+            }
+        }
+        return grown;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * SplitMix64 finalizer; sequential ids come out spread over all bits
+     */
+    private static long mix(long id) {
+        long z = id + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,105 @@
+package com.netbanking.app.security;
+
+import com.netbanking.app.repository.RefreshTokenFamilyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of revoked refresh token families, checked by the
+ * authentication filter on every request that carries a family claim.
+ *
+ * A revoked family only matters until the last access token issued from it
+ * expires, so the index holds families revoked within one access-token
+ * lifetime. It is built from the database at startup, picks up revocations
+ * made on other nodes on every refresh
+ * (banking.security.revocation.refresh-interval-ms), and is rebuilt from
+ * scratch periodically to drop families that no longer matter.
+ */
+@Component
+public class RevokedTokenFamilies {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenFamilies.class);
+
+    /** Re-read this far back on each refresh, for clock skew between nodes */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final Duration accessTokenLifetime;
+    private final int initialCapacity;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile RevokedFamilyIndex index;
+    private LocalDateTime refreshedAt;
+
+    @Autowired
+    public RevokedTokenFamilies(RefreshTokenFamilyRepository refreshTokenFamilyRepository,
+                                @Value("${jwt.expiration}") long accessTokenLifetimeMs,
+                                @Value("${banking.security.refresh-token.revoked-capacity:100000}") int initialCapacity) {
+        this.refreshTokenFamilyRepository = refreshTokenFamilyRepository;
+        this.accessTokenLifetime = Duration.ofMillis(accessTokenLifetimeMs);
+        this.initialCapacity = initialCapacity;
+        this.index = new RevokedFamilyIndex(initialCapacity);
+    }
+
+    public boolean isRevoked(long familyId) {
+        return index.contains(familyId);
+    }
+
+    /**
+     * Record a revocation made on this node
+     */
+    public void revoked(long familyId) {
+        writeLock.lock();
+        try {
+            add(familyId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${banking.security.refresh-token.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${banking.security.refresh-token.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> revoked = refreshTokenFamilyRepository.findIdsRevokedSince(now.minus(accessTokenLifetime));
+            RevokedFamilyIndex rebuilt = new RevokedFamilyIndex(Math.max(initialCapacity, revoked.size() * 2));
+            revoked.forEach(rebuilt::add);
+            index = rebuilt;
+            refreshedAt = now;
+            logger.debug("Rebuilt revoked token family index with {} families", revoked.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.security.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            refreshTokenFamilyRepository.findIdsRevokedSince(refreshedAt.minus(REFRESH_OVERLAP)).forEach(this::add);
+            refreshedAt = now;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void add(long familyId) {
+        while (!index.add(familyId)) {
+            index = index.grow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.netbanking.app.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets, one {@code long} of state each.
+ *
+ * Implemented as the equivalent GCRA: each key stores the time at which its
+ * bucket will be full again, advanced by one emission interval per accepted
+ * request with a CAS loop, so there are no locks and no allocation once a
+ * key has a bucket. A key whose bucket has refilled completely carries no
+ * information and is dropped by {@link #evictIdle()}.
+ */
+class TokenBucketLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+    // Time to earn one token, and how far ahead of now a bucket may run (capacity - 1 tokens)
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final Function<String, AtomicLong> newBucket;
+
+    TokenBucketLimiter(int requestsPerMinute, LongSupplier nanoClock) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("requestsPerMinute must be positive");
+        }
+        this.nanoClock = nanoClock;
+        this.emissionInterval = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burstTolerance = emissionInterval * (requestsPerMinute - 1);
+        this.newBucket = key -> new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Take a token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    long tryAcquire(String key) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, newBucket);
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long fullAt = bucket.get();
+            long from = Math.max(fullAt, now);
+            long wait = from - burstTolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, from + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled; a fresh bucket behaves identically.
+     * A request racing the removal may spend a token on the dropped bucket,
+     * which at worst lets that key through once more.
+     */
+    void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
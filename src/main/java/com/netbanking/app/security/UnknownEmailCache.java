@@ -0,0 +1,70 @@
+package com.netbanking.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived memory of sign-in emails that matched no user, so repeated
+ * attempts against them skip the user lookup.
+ *
+ * Only the lookup is skipped: the authentication provider still verifies
+ * the password against a dummy hash, so unknown emails take as long as known
+ * ones. Entries are dropped when a user with that email is committed; a
+ * lookup racing with that commit can still cache a stale miss, which lasts at
+ * most banking.security.login.unknown-email-ttl. Hit/miss counters are
+ * published under {@code cache=unknown-emails}.
+ */
+@Component
+public class UnknownEmailCache {
+
+    private static final String CACHE_NAME = "unknown-emails";
+
+    private final Cache<String, Boolean> unknown;
+
+    @Autowired
+    public UnknownEmailCache(@Value("${banking.security.login.unknown-email-ttl:30s}") Duration ttl,
+                             @Value("${banking.security.login.unknown-email-max-size:100000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.unknown = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknown, CACHE_NAME);
+    }
+
+    /**
+     * A lookup that answers emails recently found unknown without calling the delegate
+     */
+    public UserDetailsService guard(UserDetailsService delegate) {
+        return email -> {
+            if (unknown.getIfPresent(email) != null) {
+                throw new UsernameNotFoundException("User not found with email: " + email);
+            }
+            try {
+                return delegate.loadUserByUsername(email);
+            } catch (UsernameNotFoundException e) {
+                unknown.put(email, Boolean.TRUE);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Forget a miss for an email that now belongs to a user
+     */
+    public void evict(String email) {
+        if (email != null) {
+            unknown.invalidate(email);
+        }
+    }
+}
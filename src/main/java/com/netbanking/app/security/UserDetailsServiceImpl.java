@@ -1,11 +1,18 @@
 package com.netbanking.app.security;
 
 import com.banking.core.entity.User;
+import com.banking.core.enums.Status;
 import com.banking.core.repository.UserRepository;
+import com.netbanking.app.repository.UserQueryRepository;
+import com.netbanking.app.util.ParsedToken;
+import com.netbanking.app.util.TokenSubject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -20,13 +27,17 @@ import java.util.List;
  */
 @Service
 @Transactional
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     private final UserRepository userRepository;
+    private final UserQueryRepository userQueryRepository;
 
     @Autowired
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserQueryRepository userQueryRepository) {
         this.userRepository = userRepository;
+        this.userQueryRepository = userQueryRepository;
     }
 
     @Override
@@ -37,6 +48,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
+    /**
+     * Store a rehash of the password just verified at sign-in, made at the
+     * current cost. Skipped if the password changed in the meantime.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userQueryRepository.replacePasswordHash(user.getUsername(), user.getPassword(), newPassword) == 0) {
+            return user;
+        }
+        logger.debug("Rehashed password for user: {}", user.getUsername());
+        UserPrincipal principal = (UserPrincipal) user;
+        return new UserPrincipal(principal.getId(), principal.getUsername(), newPassword,
+                principal.getAuthorities(), principal.isEnabled(), principal.getStatus());
+    }
+
     /**
      * Load user by ID - useful for JWT token validation
      */
@@ -50,20 +76,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     /**
      * Custom UserDetails implementation
      */
-    public static class UserPrincipal implements UserDetails {
+    public static class UserPrincipal implements UserDetails, TokenSubject {
         private final Long id;
         private final String email;
         private final String password;
         private final Collection<? extends GrantedAuthority> authorities;
         private final boolean enabled;
+        private final String status;
 
         public UserPrincipal(Long id, String email, String password, 
                             Collection<? extends GrantedAuthority> authorities, boolean enabled) {
+            this(id, email, password, authorities, enabled, enabled ? Status.ACTIVE.name() : Status.INACTIVE.name());
+        }
+
+        public UserPrincipal(Long id, String email, String password,
+                            Collection<? extends GrantedAuthority> authorities, boolean enabled, String status) {
             this.id = id;
             this.email = email;
             this.password = password;
             this.authorities = authorities;
             this.enabled = enabled;
+            this.status = status;
         }
 
         public static UserPrincipal create(User user) {
@@ -75,14 +108,43 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                     user.getEmail(),
                     user.getPasswordHash(),
                     authorities,
-                    user.getStatus().name().equals("ACTIVE")
+                    user.getStatus().name().equals("ACTIVE"),
+                    user.getStatus().name()
             );
         }
 
+        /**
+         * Rebuild a principal from the claims of a self-contained access token
+         */
+        public static UserPrincipal fromToken(ParsedToken token) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            authorities.add(new SimpleGrantedAuthority(token.getRole()));
+
+            return new UserPrincipal(
+                    token.getUserId(),
+                    token.getSubject(),
+                    null,
+                    authorities,
+                    Status.ACTIVE.name().equals(token.getStatus()),
+                    token.getStatus()
+            );
+        }
+
+        @Override
         public Long getId() {
             return id;
         }
 
+        @Override
+        public String getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getRole() {
+            return authorities.isEmpty() ? null : authorities.iterator().next().getAuthority();
+        }
+
         @Override
         public String getUsername() {
             return email;
@@ -0,0 +1,84 @@
+package com.netbanking.app.security;
+
+import com.banking.core.enums.Status;
+import com.netbanking.app.repository.UserQueryRepository;
+import com.netbanking.app.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of users who are no longer ACTIVE.
+ *
+ * Self-contained access tokens are trusted without a user lookup, so this is
+ * what stops a deactivated user before the token expires. Changes made on this
+ * node apply immediately; changes made elsewhere are picked up on the next
+ * refresh (banking.security.revocation.refresh-interval-ms).
+ *
+ * A refresh updates the live set in place rather than swapping in a new one,
+ * then re-applies every local change received since its query started, so a
+ * change that lands while the set is being rebuilt is never lost.
+ */
+@Component
+public class UserRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRevocationRegistry.class);
+
+    private final UserQueryRepository userQueryRepository;
+    private final JwtUtil jwtUtil;
+
+    private final Set<Long> inactiveUserIds = ConcurrentHashMap.newKeySet();
+    // Latest status per user changed on this node since the current refresh began
+    private final Map<Long, Status> changedSinceRefresh = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserRevocationRegistry(UserQueryRepository userQueryRepository, JwtUtil jwtUtil) {
+        this.userQueryRepository = userQueryRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public boolean isRevoked(Long userId) {
+        return userId == null || inactiveUserIds.contains(userId);
+    }
+
+    /**
+     * Record a status change committed on this node
+     */
+    public void statusChanged(Long userId, Status status) {
+        if (userId == null) {
+            return;
+        }
+        // Recorded before it is applied, so a refresh that misses the apply still re-applies it
+        changedSinceRefresh.put(userId, status);
+        apply(userId, status);
+    }
+
+    private void apply(Long userId, Status status) {
+        if (status == Status.ACTIVE) {
+            inactiveUserIds.remove(userId);
+        } else {
+            inactiveUserIds.add(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.security.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!jwtUtil.isSelfContained()) {
+            return;
+        }
+        // Changes are reported after they commit, so any recorded before this point are in the query's results
+        changedSinceRefresh.clear();
+        Set<Long> reloaded = new HashSet<>(userQueryRepository.findIdsByStatusNot(Status.ACTIVE));
+        inactiveUserIds.removeIf(userId -> !reloaded.contains(userId) && !changedSinceRefresh.containsKey(userId));
+        inactiveUserIds.addAll(reloaded);
+        changedSinceRefresh.forEach(this::apply);
+        logger.debug("Reloaded {} inactive users for token revocation", reloaded.size());
+    }
+}
@@ -0,0 +1,98 @@
+package com.netbanking.app.service;
+
+import com.banking.core.entity.Account;
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.dto.AccountDto;
+import com.netbanking.app.dto.AccountSummaryDto;
+import com.netbanking.app.dto.BatchTransferResponse;
+import com.netbanking.app.dto.TransactionDto;
+import com.netbanking.app.dto.TransferRequest;
+import com.netbanking.app.util.KeysetCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Account operations scoped to the calling user.
+ *
+ * Every method takes the owner's user id and checks ownership in the same
+ * query that loads the account; pass {@code null} for admin access to any
+ * account. A miss on someone else's account throws AccessDeniedException,
+ * a miss on a non-existent account throws AccountNotFoundException.
+ */
+public interface AccountOperationsService {
+
+    /**
+     * Open an account for the owner, with the core service's defaults per account type
+     */
+    Account createAccount(Long ownerId, AccountType accountType, String branchIfsc, BigDecimal initialDeposit);
+
+    Account getAccount(String accountNumber, Long ownerId);
+
+    BigDecimal getBalance(String accountNumber, Long ownerId);
+
+    /**
+     * A page of the owner's accounts as DTOs, without counting the total
+     */
+    Slice<AccountDto> findAccounts(Long ownerId, Pageable pageable);
+
+    /**
+     * A page of the owner's accounts as DTOs, plus the total count
+     */
+    Page<AccountDto> findAccountsWithTotal(Long ownerId, Pageable pageable);
+
+    /**
+     * The owner's accounts after a keyset cursor, newest first
+     */
+    Slice<AccountDto> findAccountsAfter(Long ownerId, KeysetCursor cursor, int size);
+
+    /**
+     * Transactions sent or received by the account after a keyset cursor, newest first
+     */
+    Slice<TransactionDto> findTransactions(String accountNumber, Long ownerId, KeysetCursor cursor, int size);
+
+    /**
+     * Stream the account's transactions in [from, to), newest first, to the sink
+     *
+     * @param type only transactions of this type, or null for all
+     * @return the number of transactions passed to the sink
+     */
+    long exportTransactions(String accountNumber, Long ownerId, LocalDateTime from, LocalDateTime to,
+                            TransactionType type, Consumer<TransactionDto> sink);
+
+    /**
+     * Totals over all of the user's accounts, served from memory once built
+     */
+    AccountSummaryDto getAccountSummary(Long userId);
+
+    /**
+     * @param reference idempotency reference stored on the ledger row, or null; a reference that is
+     *                  already recorded fails the posting with DataIntegrityViolationException
+     */
+    Account deposit(String accountNumber, Long ownerId, BigDecimal amount, String narration, String reference);
+
+    /**
+     * @param reference idempotency reference stored on the ledger row, or null; see deposit
+     */
+    Account withdraw(String accountNumber, Long ownerId, BigDecimal amount, String narration, String reference);
+
+    /**
+     * @param reference idempotency reference stored on the ledger row, or null; see deposit
+     */
+    void transfer(String fromAccountNumber, Long ownerId, String toAccountNumber, BigDecimal amount, String narration,
+                  String reference);
+
+    /**
+     * Settle many transfers in one transaction, netting balance changes per account.
+     * Failed items are reported per item and do not abort the batch.
+     */
+    BatchTransferResponse transferBatch(List<TransferRequest> requests, Long ownerId);
+
+    void closeAccount(String accountNumber, Long ownerId, String reason);
+}
@@ -0,0 +1,101 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.exception.TransactionFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks that serializes work on the same account inside this JVM.
+ *
+ * Account numbers hash onto a power-of-two number of stripes. Callers that
+ * need several accounts get their stripes in ascending index order, so two
+ * transfers in opposite directions can never wait on each other.
+ *
+ * A caller with many accounts would hold most of the stripes and stall
+ * postings on unrelated accounts, so stripes are only for callers within
+ * {@link #coversFew}; others rely on row locks alone. Those are taken in the
+ * same account-number order, so the two kinds of caller cannot deadlock.
+ */
+@Component
+class AccountLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+
+    @Autowired
+    AccountLockStripes(@Value("${banking.transaction.lock-stripes:1024}") int stripeCount,
+                       @Value("${banking.transaction.lock-timeout:5s}") Duration timeout) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Whether that many accounts map to a small enough share of the stripes
+     * (one in eight at most) to lock them without blocking most other work
+     */
+    boolean coversFew(int accountCount) {
+        return accountCount <= stripes.length / 8;
+    }
+
+    /**
+     * Lock the stripes covering the given accounts, in canonical order
+     *
+     * @return a handle that releases every acquired stripe
+     */
+    Held lock(String... accountNumbers) {
+        int[] indexes = Arrays.stream(accountNumbers)
+                .mapToInt(this::stripeIndex)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new TransactionFailedException("Timed out waiting for account lock");
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionFailedException("Interrupted while waiting for account lock", e);
+        } finally {
+            if (acquired < indexes.length) {
+                release(indexes, acquired);
+            }
+        }
+        return () -> release(indexes, indexes.length);
+    }
+
+    private void release(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Acquired stripes; close to release them
+     */
+    interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
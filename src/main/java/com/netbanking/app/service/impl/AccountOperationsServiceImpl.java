@@ -0,0 +1,398 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+import com.banking.core.enums.TransactionType;
+import com.banking.core.exception.AccountNotFoundException;
+import com.banking.core.exception.BankingException;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.TransactionFailedException;
+import com.banking.core.repository.BranchRepository;
+import com.netbanking.app.cache.AccountSummaryCache;
+import com.netbanking.app.cache.BalanceCache;
+import com.netbanking.app.cache.BalanceSnapshot;
+import com.netbanking.app.dormancy.AccountActivityTracker;
+import com.netbanking.app.dto.AccountDto;
+import com.netbanking.app.dto.AccountSummaryDto;
+import com.netbanking.app.dto.BatchTransferResponse;
+import com.netbanking.app.dto.TransactionDto;
+import com.netbanking.app.dto.TransferRequest;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.TransactionHistoryReader;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import com.netbanking.app.repository.UserQueryRepository;
+import com.netbanking.app.service.AccountOperationsService;
+import com.netbanking.app.util.IdGenerator;
+import com.netbanking.app.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Ownership-checked account operations.
+ *
+ * Applies the same validation rules and error codes as the core AccountService,
+ * but loads each account once (with the owner check folded into the WHERE
+ * clause) and mutates that entity instead of looking it up again.
+ *
+ * Balance changes run through {@link TransferEngine}: stripe lock first, then
+ * a transaction that row-locks the accounts. Those methods are SUPPORTS so the
+ * stripe is held until the engine's transaction has committed.
+ */
+@Service
+@Transactional
+public class AccountOperationsServiceImpl implements AccountOperationsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountOperationsServiceImpl.class);
+
+    private static final int ACCOUNT_NUMBER_ATTEMPTS = 5;
+
+    private final AccountQueryRepository accountQueryRepository;
+    private final UserQueryRepository userQueryRepository;
+    private final TransactionQueryRepository transactionQueryRepository;
+    private final TransactionHistoryReader transactionHistoryReader;
+    private final BranchRepository branchRepository;
+    private final IdGenerator idGenerator;
+    private final TransactionRecorder transactionRecorder;
+    private final AccountActivityTracker accountActivityTracker;
+    private final TransferEngine transferEngine;
+    private final DailyDebitLimits debitLimits;
+    private final BatchTransferSettler batchTransferSettler;
+    private final BalanceCache balanceCache;
+    private final AccountSummaryCache accountSummaryCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AccountOperationsServiceImpl(AccountQueryRepository accountQueryRepository,
+                                        UserQueryRepository userQueryRepository,
+                                        TransactionQueryRepository transactionQueryRepository,
+                                        TransactionHistoryReader transactionHistoryReader,
+                                        BranchRepository branchRepository,
+                                        IdGenerator idGenerator, TransactionRecorder transactionRecorder,
+                                        AccountActivityTracker accountActivityTracker,
+                                        TransferEngine transferEngine, DailyDebitLimits debitLimits,
+                                        BatchTransferSettler batchTransferSettler,
+                                        BalanceCache balanceCache, AccountSummaryCache accountSummaryCache,
+                                        PlatformTransactionManager transactionManager) {
+        this.accountQueryRepository = accountQueryRepository;
+        this.userQueryRepository = userQueryRepository;
+        this.transactionQueryRepository = transactionQueryRepository;
+        this.transactionHistoryReader = transactionHistoryReader;
+        this.branchRepository = branchRepository;
+        this.idGenerator = idGenerator;
+        this.transactionRecorder = transactionRecorder;
+        this.accountActivityTracker = accountActivityTracker;
+        this.transferEngine = transferEngine;
+        this.debitLimits = debitLimits;
+        this.batchTransferSettler = batchTransferSettler;
+        this.balanceCache = balanceCache;
+        this.accountSummaryCache = accountSummaryCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The generator resumes after the numbers this node already issued, but a
+     * number can still be taken (a node id shared by mistake, an account
+     * imported by hand). The unique account_number constraint catches that;
+     * each attempt runs in its own transaction so the next one can retry with
+     * a fresh number.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Account createAccount(Long ownerId, AccountType accountType, String branchIfsc, BigDecimal initialDeposit) {
+        logger.info("Creating account for user: {} with type: {}", ownerId, accountType);
+
+        for (int attempt = 1; ; attempt++) {
+            String accountNumber = idGenerator.generateAccountNumber(accountType);
+            try {
+                Account account = transactionTemplate.execute(status ->
+                        openAccount(accountNumber, ownerId, accountType, branchIfsc, initialDeposit));
+                logger.info("Account created successfully: {}", accountNumber);
+                return account;
+            } catch (DataIntegrityViolationException e) {
+                // Only runs on the failure path, to tell a taken number apart from any other violation
+                if (!accountQueryRepository.existsByAccountNumber(accountNumber)) {
+                    throw e;
+                }
+                logger.warn("Generated account number {} is already taken (attempt {})", accountNumber, attempt);
+                if (attempt == ACCOUNT_NUMBER_ATTEMPTS) {
+                    throw new BankingException("Could not allocate an account number", "ACCOUNT_NUMBER_UNAVAILABLE");
+                }
+            }
+        }
+    }
+
+    private Account openAccount(String accountNumber, Long ownerId, AccountType accountType, String branchIfsc,
+                                BigDecimal initialDeposit) {
+        Branch branch = branchRepository.findByIfsc(branchIfsc)
+                .orElseThrow(() -> new BankingException("Branch not found with IFSC: " + branchIfsc, "BRANCH_NOT_FOUND"));
+
+        User owner = userQueryRepository.getReferenceById(ownerId);
+        Account account = new Account(accountNumber, accountType, owner, branch);
+        account.setBalance(initialDeposit);
+
+        switch (accountType) {
+            case SAVINGS -> account.setInterestRate(BigDecimal.valueOf(3.5));
+            case CURRENT -> {
+                account.setInterestRate(BigDecimal.ZERO);
+                account.setOverdraftLimit(BigDecimal.valueOf(10000));
+            }
+            case SALARY -> account.setInterestRate(BigDecimal.valueOf(2.5));
+            case FIXED_DEPOSIT -> account.setInterestRate(BigDecimal.valueOf(6.5));
+        }
+
+        account = accountQueryRepository.save(account);
+        accountActivityTracker.opened(account.getId());
+
+        if (initialDeposit.compareTo(BigDecimal.ZERO) > 0) {
+            transactionRecorder.record(TransactionType.DEPOSIT, initialDeposit, null, account, "Initial deposit",
+                    account.getBalance(), null);
+        }
+        return account;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Account getAccount(String accountNumber, Long ownerId) {
+        return loadOwnedAccount(accountNumber, ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(String accountNumber, Long ownerId) {
+        BalanceSnapshot snapshot = balanceCache.get(accountNumber,
+                key -> accountQueryRepository.findBalanceSnapshotByAccountNumber(key).orElse(null));
+        if (snapshot == null) {
+            throw new AccountNotFoundException(accountNumber);
+        }
+        if (ownerId != null && !ownerId.equals(snapshot.ownerId())) {
+            throw new AccessDeniedException("Account does not belong to the current user");
+        }
+        return snapshot.balance();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<AccountDto> findAccounts(Long ownerId, Pageable pageable) {
+        return accountQueryRepository.findViewsByUserId(ownerId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AccountDto> findAccountsWithTotal(Long ownerId, Pageable pageable) {
+        return accountQueryRepository.findViewPageByUserId(ownerId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<AccountDto> findAccountsAfter(Long ownerId, KeysetCursor cursor, int size) {
+        return accountQueryRepository.findViewsByUserIdBefore(ownerId, cursor.timestamp(), cursor.id(),
+                PageRequest.ofSize(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<TransactionDto> findTransactions(String accountNumber, Long ownerId, KeysetCursor cursor, int size) {
+        Long accountId = findOwnedAccountId(accountNumber, ownerId);
+        Pageable slice = PageRequest.ofSize(size);
+        Slice<TransactionDto> sent = transactionQueryRepository.findSentBefore(accountId, cursor.timestamp(),
+                cursor.id(), slice);
+        Slice<TransactionDto> received = transactionQueryRepository.findReceivedBefore(accountId, cursor.timestamp(),
+                cursor.id(), slice);
+
+        List<TransactionDto> merged = new ArrayList<>(sent.getNumberOfElements() + received.getNumberOfElements());
+        merged.addAll(sent.getContent());
+        merged.addAll(received.getContent());
+        merged.sort(TransactionHistoryReader.NEWEST_FIRST);
+        boolean hasNext = merged.size() > size || sent.hasNext() || received.hasNext();
+        return new SliceImpl<>(merged.subList(0, Math.min(size, merged.size())), slice, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTransactions(String accountNumber, Long ownerId, LocalDateTime from, LocalDateTime to,
+                                   TransactionType type, Consumer<TransactionDto> sink) {
+        Long accountId = findOwnedAccountId(accountNumber, ownerId);
+        long exported = 0;
+        try (Stream<TransactionDto> history = transactionHistoryReader.stream(accountId, from, to, type)) {
+            Iterator<TransactionDto> rows = history.iterator();
+            while (rows.hasNext()) {
+                TransactionDto row = rows.next();
+                // DTO projections are not managed, so the persistence context stays empty however long this runs
+                sink.accept(row);
+                exported++;
+            }
+        }
+        logger.debug("Exported {} transactions for account {}", exported, accountNumber);
+        return exported;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountSummaryDto getAccountSummary(Long userId) {
+        return accountSummaryCache.get(userId, accountQueryRepository::findSummaryRowsByUserId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Account deposit(String accountNumber, Long ownerId, BigDecimal amount, String narration,
+                           String reference) {
+        logger.info("Deposit request - Account: {}, Amount: {}", accountNumber, amount);
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BankingException("Deposit amount must be positive", "INVALID_AMOUNT");
+        }
+
+        Account account = transferEngine.withAccountLocks(() -> {
+            Account locked = lockOwnedAccount(accountNumber, ownerId);
+            if (locked.getStatus() != Status.ACTIVE) {
+                throw new BankingException("Account is not active", "ACCOUNT_INACTIVE");
+            }
+
+            locked.credit(amount);
+            transactionRecorder.record(TransactionType.DEPOSIT, amount, null, locked, narration, locked.getBalance(),
+                    reference);
+            return locked;
+        }, accountNumber);
+
+        logger.info("Deposit successful - Account: {}, New Balance: {}", accountNumber, account.getBalance());
+        return account;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Account withdraw(String accountNumber, Long ownerId, BigDecimal amount, String narration,
+                            String reference) {
+        logger.info("Withdrawal request - Account: {}, Amount: {}", accountNumber, amount);
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BankingException("Withdrawal amount must be positive", "INVALID_AMOUNT");
+        }
+
+        Account account = transferEngine.withAccountLocks(() -> {
+            Account locked = lockOwnedAccount(accountNumber, ownerId);
+            if (locked.getStatus() != Status.ACTIVE) {
+                throw new BankingException("Account is not active", "ACCOUNT_INACTIVE");
+            }
+            if (!locked.canWithdraw(amount)) {
+                throw new InsufficientFundsException(locked.getAvailableBalance(), amount);
+            }
+            debitLimits.reserve(locked.getId(), amount);
+
+            locked.debit(amount);
+            transactionRecorder.record(TransactionType.WITHDRAWAL, amount, locked, null, narration, locked.getBalance(),
+                    reference);
+            return locked;
+        }, accountNumber);
+
+        logger.info("Withdrawal successful - Account: {}, New Balance: {}", accountNumber, account.getBalance());
+        return account;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void transfer(String fromAccountNumber, Long ownerId, String toAccountNumber,
+                         BigDecimal amount, String narration, String reference) {
+        logger.info("Transfer request - From: {}, To: {}, Amount: {}", fromAccountNumber, toAccountNumber, amount);
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BankingException("Transfer amount must be positive", "INVALID_AMOUNT");
+        }
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw new BankingException("Cannot transfer to the same account", "INVALID_TRANSFER");
+        }
+        debitLimits.checkSingleTransfer(amount);
+
+        try {
+            transferEngine.transfer(fromAccountNumber, ownerId, toAccountNumber, amount, narration, reference);
+        } catch (AccessDeniedException | DataIntegrityViolationException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Transfer failed - From: {}, To: {}, Amount: {}", fromAccountNumber, toAccountNumber, amount, e);
+            throw new TransactionFailedException("Transfer failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests, Long ownerId) {
+        logger.info("Batch transfer request - Items: {}", requests.size());
+        return batchTransferSettler.settle(requests, ownerId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void closeAccount(String accountNumber, Long ownerId, String reason) {
+        transferEngine.withAccountLocks(() -> {
+            Account account = lockOwnedAccount(accountNumber, ownerId);
+            if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+                throw new BankingException("Cannot close account with non-zero balance", "ACCOUNT_HAS_BALANCE");
+            }
+
+            account.setStatus(Status.CLOSED);
+            return account;
+        }, accountNumber);
+        logger.info("Account closed - Account: {}, Reason: {}", accountNumber, reason);
+    }
+
+    /**
+     * Load an account (with its branch) in one query that also checks the owner
+     */
+    private Account loadOwnedAccount(String accountNumber, Long ownerId) {
+        Optional<Account> account = ownerId == null
+                ? accountQueryRepository.findWithBranchByAccountNumber(accountNumber)
+                : accountQueryRepository.findByAccountNumberAndUserId(accountNumber, ownerId);
+        return account.orElseThrow(() -> missingAccount(accountNumber, ownerId));
+    }
+
+    /**
+     * Same as loadOwnedAccount but takes the row lock (SELECT ... FOR UPDATE)
+     */
+    private Account lockOwnedAccount(String accountNumber, Long ownerId) {
+        Optional<Account> account = ownerId == null
+                ? accountQueryRepository.findForUpdateWithBranchByAccountNumber(accountNumber)
+                : accountQueryRepository.findForUpdateByAccountNumberAndUserId(accountNumber, ownerId);
+        return account.orElseThrow(() -> missingAccount(accountNumber, ownerId));
+    }
+
+    private Long findOwnedAccountId(String accountNumber, Long ownerId) {
+        Optional<Long> accountId = ownerId == null
+                ? accountQueryRepository.findIdByAccountNumber(accountNumber)
+                : accountQueryRepository.findIdByAccountNumberAndUserId(accountNumber, ownerId);
+        return accountId.orElseThrow(() -> missingAccount(accountNumber, ownerId));
+    }
+
+    /**
+     * Only runs on the failure path, to tell "not yours" apart from "does not exist"
+     */
+    private RuntimeException missingAccount(String accountNumber, Long ownerId) {
+        if (ownerId != null && accountQueryRepository.existsByAccountNumber(accountNumber)) {
+            return new AccessDeniedException("Account does not belong to the current user");
+        }
+        return new AccountNotFoundException(accountNumber);
+    }
+}
@@ -0,0 +1,227 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.entity.Account;
+import com.banking.core.enums.Status;
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.dormancy.AccountActivityTracker;
+import com.netbanking.app.dto.BatchTransferItemResult;
+import com.netbanking.app.dto.BatchTransferResponse;
+import com.netbanking.app.dto.TransferRequest;
+import com.netbanking.app.ledger.LedgerTable;
+import com.netbanking.app.ledger.MinorUnits;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.TransactionBatchWriter;
+import com.netbanking.app.util.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Settles a batch of transfers in one transaction.
+ *
+ * Items are applied in request order against running balances, so a later
+ * item sees the effect of earlier ones. The running balances are kept in minor
+ * units in a {@link LedgerTable}, so checks and postings don't allocate. Each
+ * touched account is then written once with its net balance, and the ledger
+ * rows go out as a JDBC batch. An item that fails validation is reported and
+ * skipped; it does not fail the batch.
+ *
+ * Small batches queue on the account lock stripes like single transfers.
+ * Larger ones would cover most stripes, so they take only the row locks.
+ */
+@Component
+class BatchTransferSettler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransferSettler.class);
+
+    // Keeps IN lists well under database parameter limits
+    private static final int LOCK_CHUNK_SIZE = 500;
+
+    private final AccountQueryRepository accountQueryRepository;
+    private final TransactionBatchWriter transactionBatchWriter;
+    private final AccountLockStripes lockStripes;
+    private final IdGenerator idGenerator;
+    private final AccountActivityTracker accountActivityTracker;
+    private final DailyDebitLimits debitLimits;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    BatchTransferSettler(AccountQueryRepository accountQueryRepository, TransactionBatchWriter transactionBatchWriter,
+                         AccountLockStripes lockStripes, IdGenerator idGenerator,
+                         AccountActivityTracker accountActivityTracker, DailyDebitLimits debitLimits,
+                         PlatformTransactionManager transactionManager) {
+        this.accountQueryRepository = accountQueryRepository;
+        this.transactionBatchWriter = transactionBatchWriter;
+        this.lockStripes = lockStripes;
+        this.idGenerator = idGenerator;
+        this.accountActivityTracker = accountActivityTracker;
+        this.debitLimits = debitLimits;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    BatchTransferResponse settle(List<TransferRequest> requests, Long ownerId) {
+        BatchTransferItemResult[] results = new BatchTransferItemResult[requests.size()];
+        TreeSet<String> accountNumbers = new TreeSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            BatchTransferItemResult invalid = validate(i, requests.get(i));
+            if (invalid != null) {
+                results[i] = invalid;
+            } else {
+                accountNumbers.add(requests.get(i).getFromAccountNumber());
+                accountNumbers.add(requests.get(i).getToAccountNumber());
+            }
+        }
+
+        if (!accountNumbers.isEmpty() && lockStripes.coversFew(accountNumbers.size())) {
+            try (AccountLockStripes.Held ignored = lockStripes.lock(accountNumbers.toArray(String[]::new))) {
+                transactionTemplate.executeWithoutResult(status -> apply(requests, ownerId, accountNumbers, results));
+            }
+        } else if (!accountNumbers.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> apply(requests, ownerId, accountNumbers, results));
+        }
+
+        BatchTransferResponse response = new BatchTransferResponse(Arrays.asList(results));
+        logger.info("Batch transfer settled - Items: {}, Succeeded: {}, Failed: {}, Accounts: {}",
+                requests.size(), response.getSucceeded(), response.getFailed(), accountNumbers.size());
+        return response;
+    }
+
+    private void apply(List<TransferRequest> requests, Long ownerId, TreeSet<String> accountNumbers,
+                       BatchTransferItemResult[] results) {
+        Map<String, Account> accounts = lockAccounts(accountNumbers);
+        LedgerTable balances = new LedgerTable(accounts.size());
+        List<TransactionBatchWriter.LedgerRow> ledger = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TransferRequest request = requests.get(i);
+            Account fromAccount = accounts.get(request.getFromAccountNumber());
+            Account toAccount = accounts.get(request.getToAccountNumber());
+            BigDecimal amount = request.getAmount();
+
+            if (fromAccount == null) {
+                results[i] = BatchTransferItemResult.failure(i, "ACCOUNT_NOT_FOUND", "Source account not found");
+                continue;
+            }
+            if (ownerId != null && !Objects.equals(fromAccount.getUser().getId(), ownerId)) {
+                results[i] = BatchTransferItemResult.failure(i, "ACCESS_DENIED",
+                        "Account does not belong to the current user");
+                continue;
+            }
+            if (toAccount == null) {
+                results[i] = BatchTransferItemResult.failure(i, "ACCOUNT_NOT_FOUND", "Destination account not found");
+                continue;
+            }
+            if (fromAccount.getStatus() != Status.ACTIVE) {
+                results[i] = BatchTransferItemResult.failure(i, "ACCOUNT_INACTIVE", "Source account is not active");
+                continue;
+            }
+            if (toAccount.getStatus() != Status.ACTIVE) {
+                results[i] = BatchTransferItemResult.failure(i, "ACCOUNT_INACTIVE", "Destination account is not active");
+                continue;
+            }
+
+            long minorAmount = MinorUnits.toMinor(amount);
+            load(balances, fromAccount);
+            if (!balances.canDebit(fromAccount.getId(), minorAmount)) {
+                results[i] = BatchTransferItemResult.failure(i, "INSUFFICIENT_FUNDS", "Insufficient funds");
+                continue;
+            }
+            if (!debitLimits.tryReserve(fromAccount.getId(), amount)) {
+                results[i] = BatchTransferItemResult.failure(i, "DAILY_LIMIT_EXCEEDED",
+                        "Transaction exceeds the daily debit limit");
+                continue;
+            }
+
+            load(balances, toAccount);
+            BigDecimal fromAfter = MinorUnits.toDecimal(balances.debit(fromAccount.getId(), minorAmount));
+            balances.credit(toAccount.getId(), minorAmount);
+
+            String txnId = idGenerator.generateTransactionId();
+            ledger.add(new TransactionBatchWriter.LedgerRow(txnId, TransactionType.TRANSFER, amount,
+                    fromAccount.getCurrency(), fromAccount.getId(), toAccount.getId(), now,
+                    request.getNarration(), fromAfter, null));
+            results[i] = BatchTransferItemResult.success(i, txnId);
+        }
+
+        // One net write per account; the UPDATEs are flushed at commit
+        List<Long> touched = new ArrayList<>(balances.size());
+        for (Account account : accounts.values()) {
+            if (balances.contains(account.getId())) {
+                account.setBalance(MinorUnits.toDecimal(balances.balance(account.getId())));
+                touched.add(account.getId());
+            }
+        }
+        transactionBatchWriter.insert(ledger);
+        accountActivityTracker.touched(touched);
+    }
+
+    private static void load(LedgerTable balances, Account account) {
+        if (!balances.contains(account.getId())) {
+            balances.load(account.getId(), MinorUnits.toMinor(account.getBalance()),
+                    MinorUnits.toMinor(account.getOverdraftLimit()));
+        }
+    }
+
+    /**
+     * Row-lock every account in the batch, in account-number order
+     */
+    private Map<String, Account> lockAccounts(TreeSet<String> accountNumbers) {
+        Map<String, Account> accounts = new HashMap<>();
+        List<String> sorted = new ArrayList<>(accountNumbers);
+        for (int start = 0; start < sorted.size(); start += LOCK_CHUNK_SIZE) {
+            List<String> chunk = sorted.subList(start, Math.min(start + LOCK_CHUNK_SIZE, sorted.size()));
+            for (Account account : accountQueryRepository.findAllForUpdateByAccountNumberIn(chunk)) {
+                accounts.put(account.getAccountNumber(), account);
+            }
+        }
+        return accounts;
+    }
+
+    private BatchTransferItemResult validate(int index, TransferRequest request) {
+        if (request == null || isBlank(request.getFromAccountNumber()) || isBlank(request.getToAccountNumber())) {
+            return BatchTransferItemResult.failure(index, "INVALID_REQUEST", "From and to account numbers are required");
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return BatchTransferItemResult.failure(index, "INVALID_AMOUNT", "Transfer amount must be positive");
+        }
+        if (!MinorUnits.isExact(request.getAmount())) {
+            return BatchTransferItemResult.failure(index, "INVALID_AMOUNT",
+                    "Transfer amount must be a whole number of minor units");
+        }
+        if (request.getFromAccountNumber().equals(request.getToAccountNumber())) {
+            return BatchTransferItemResult.failure(index, "INVALID_TRANSFER", "Cannot transfer to the same account");
+        }
+        if (!debitLimits.withinSingleTransfer(request.getAmount())) {
+            return BatchTransferItemResult.failure(index, "TRANSFER_LIMIT_EXCEEDED",
+                    "Transfer amount exceeds the single transfer limit");
+        }
+        if (request.getNarration() != null && request.getNarration().length() > 255) {
+            return BatchTransferItemResult.failure(index, "INVALID_REQUEST", "Narration must be less than 255 characters");
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
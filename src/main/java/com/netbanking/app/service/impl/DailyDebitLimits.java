@@ -0,0 +1,212 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.exception.BankingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netbanking.app.repository.DebitRow;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enforces banking.transaction.max-single-transfer and max-daily-limit.
+ *
+ * The daily limit applies to everything debited from an account over the
+ * last 24 hours. Each account's running total lives in memory as 24 hourly
+ * buckets of minor units, built from the database the first time the account
+ * is debited (callers hold its row lock by then, so the seed is exact) and
+ * added to by every debit after that. Debits leave the window on the hour,
+ * up to an hour after they turn 24 hours old, which only ever errs on the
+ * strict side.
+ *
+ * A debit is reserved when it is checked and given back if its transaction
+ * rolls back. Windows are per node: with several nodes posting to the same
+ * account, each only sees the debits made since it seeded the account.
+ */
+@Component
+class DailyDebitLimits {
+
+    private static final int HOURS = 24;
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private final TransactionQueryRepository transactionQueryRepository;
+    private final BigDecimal maxSingleTransfer;
+    private final long maxDailyMinor;
+    private final Clock clock;
+    private final Cache<Long, Window> windows;
+
+    @Autowired
+    DailyDebitLimits(TransactionQueryRepository transactionQueryRepository,
+                     @Value("${banking.transaction.max-single-transfer:50000.00}") BigDecimal maxSingleTransfer,
+                     @Value("${banking.transaction.max-daily-limit:100000.00}") BigDecimal maxDailyLimit,
+                     @Value("${banking.transaction.limit-window-cache-size:100000}") long cacheSize) {
+        this(transactionQueryRepository, maxSingleTransfer, maxDailyLimit, cacheSize, Clock.systemDefaultZone());
+    }
+
+    DailyDebitLimits(TransactionQueryRepository transactionQueryRepository, BigDecimal maxSingleTransfer,
+                     BigDecimal maxDailyLimit, long cacheSize, Clock clock) {
+        this.transactionQueryRepository = transactionQueryRepository;
+        this.maxSingleTransfer = maxSingleTransfer;
+        this.maxDailyMinor = toMinor(maxDailyLimit);
+        this.clock = clock;
+        // An account idle for a day has an empty window, so dropping it loses nothing
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(Duration.ofHours(HOURS))
+                .build();
+    }
+
+    /**
+     * @throws BankingException if the amount is over the single-transfer limit
+     */
+    void checkSingleTransfer(BigDecimal amount) {
+        if (!withinSingleTransfer(amount)) {
+            throw new BankingException("Transfer amount exceeds the single transfer limit of " + maxSingleTransfer,
+                    "TRANSFER_LIMIT_EXCEEDED");
+        }
+    }
+
+    boolean withinSingleTransfer(BigDecimal amount) {
+        return amount.compareTo(maxSingleTransfer) <= 0;
+    }
+
+    /**
+     * Count a debit against the account's daily limit. Call with the account row locked.
+     *
+     * @throws BankingException if it would take the account over the limit
+     */
+    void reserve(Long accountId, BigDecimal amount) {
+        if (!tryReserve(accountId, amount)) {
+            throw new BankingException("Transaction exceeds the daily debit limit", "DAILY_LIMIT_EXCEEDED");
+        }
+    }
+
+    /**
+     * Same as {@link #reserve} but reports a breach instead of throwing
+     */
+    boolean tryReserve(Long accountId, BigDecimal amount) {
+        long minor = toMinor(amount);
+        long hour = currentHour();
+        Window window = window(accountId);
+        if (!window.tryAdd(hour, minor, maxDailyMinor)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending().add(new Reservation(window, hour, minor));
+        }
+        return true;
+    }
+
+    /**
+     * The account's window, seeding it on a miss. The seed query runs outside
+     * the cache's map lock; callers hold the account lock, so it cannot race a
+     * debit on the same account.
+     */
+    private Window window(Long accountId) {
+        Window window = windows.getIfPresent(accountId);
+        if (window == null) {
+            Window seeded = seed(accountId);
+            window = windows.asMap().putIfAbsent(accountId, seeded);
+            if (window == null) {
+                window = seeded;
+            }
+        }
+        return window;
+    }
+
+    private Window seed(Long accountId) {
+        long hour = currentHour();
+        Window window = new Window();
+        LocalDateTime since = LocalDateTime.ofEpochSecond((hour - HOURS + 1) * SECONDS_PER_HOUR, 0, ZoneOffset.UTC);
+        for (DebitRow debit : transactionQueryRepository.findDebitsSince(accountId, since)) {
+            window.add(debit.timestamp().toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_HOUR, toMinor(debit.amount()));
+        }
+        return window;
+    }
+
+    private long currentHour() {
+        return LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_HOUR;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * The current transaction's reservations, released together if it rolls back
+     */
+    private List<Reservation> pending() {
+        @SuppressWarnings("unchecked")
+        List<Reservation> pending = (List<Reservation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Reservation> reservations = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, reservations);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DailyDebitLimits.this);
+                    if (status != STATUS_COMMITTED) {
+                        reservations.forEach(reservation ->
+                                reservation.window().remove(reservation.hour(), reservation.minor()));
+                    }
+                }
+            });
+            pending = reservations;
+        }
+        return pending;
+    }
+
+    private record Reservation(Window window, long hour, long minor) {
+    }
+
+    /**
+     * Debits per hour over the last 24, in a ring indexed by hour of epoch
+     */
+    static final class Window {
+
+        private final long[] hours = new long[HOURS];
+        private final long[] amounts = new long[HOURS];
+
+        synchronized boolean tryAdd(long hour, long minor, long limit) {
+            long total = 0;
+            for (int i = 0; i < HOURS; i++) {
+                if (hours[i] > hour - HOURS) {
+                    total += amounts[i];
+                }
+            }
+            if (total + minor > limit) {
+                return false;
+            }
+            add(hour, minor);
+            return true;
+        }
+
+        synchronized void add(long hour, long minor) {
+            int slot = (int) Math.floorMod(hour, HOURS);
+            if (hours[slot] != hour) {
+                hours[slot] = hour;
+                amounts[slot] = 0;
+            }
+            amounts[slot] += minor;
+        }
+
+        synchronized void remove(long hour, long minor) {
+            int slot = (int) Math.floorMod(hour, HOURS);
+            if (hours[slot] == hour) {
+                amounts[slot] -= minor;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Transaction;
+import com.banking.core.enums.TransactionType;
+import com.banking.core.repository.TransactionRepository;
+import com.netbanking.app.dormancy.AccountActivityTracker;
+import com.netbanking.app.journal.JournalEntry;
+import com.netbanking.app.journal.LedgerJournal;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.TransactionBatchWriter.LedgerRow;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import com.netbanking.app.util.IdGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Writes ledger rows for balance changes made by the app-side account services,
+ * and marks the accounts involved as active.
+ *
+ * A posting's idempotency reference goes on its row, where the unique
+ * reference_number index turns a replayed posting into a failed insert.
+ *
+ * With banking.journal.enabled the row goes to the {@link LedgerJournal}
+ * instead of the transactions table, and is inserted by its drainer after the
+ * surrounding transaction commits. The index cannot catch a replay there, so
+ * a referenced posting first looks for its reference among the journal's
+ * undrained entries and then in the table, and fails as a duplicate key if
+ * either has it.
+ */
+@Component
+class TransactionRecorder {
+
+    private final TransactionRepository transactionRepository;
+    private final AccountQueryRepository accountQueryRepository;
+    private final TransactionQueryRepository transactionQueryRepository;
+    private final IdGenerator idGenerator;
+    private final AccountActivityTracker accountActivityTracker;
+    private final LedgerJournal ledgerJournal;
+
+    @Autowired
+    TransactionRecorder(TransactionRepository transactionRepository, AccountQueryRepository accountQueryRepository,
+                        TransactionQueryRepository transactionQueryRepository, IdGenerator idGenerator, AccountActivityTracker accountActivityTracker,
+                        ObjectProvider<LedgerJournal> ledgerJournal) {
+        this.transactionRepository = transactionRepository;
+        this.accountQueryRepository = accountQueryRepository;
+        this.transactionQueryRepository = transactionQueryRepository;
+        this.idGenerator = idGenerator;
+        this.accountActivityTracker = accountActivityTracker;
+        this.ledgerJournal = ledgerJournal.getIfAvailable();
+    }
+
+    void record(TransactionType type, BigDecimal amount, Account fromAccount,
+                Account toAccount, String narration, BigDecimal balanceAfter, String reference) {
+        String txnId = idGenerator.generateTransactionId();
+        LocalDateTime now = LocalDateTime.now();
+        accountActivityTracker.touched(fromAccount != null ? fromAccount.getId() : null,
+                toAccount != null ? toAccount.getId() : null);
+        if (ledgerJournal == null) {
+            Transaction transaction = new Transaction(txnId, type, amount, fromAccount, toAccount, narration);
+            transaction.setTimestamp(now);
+            transaction.setBalanceAfter(balanceAfter);
+            transaction.setReferenceNumber(reference);
+            transactionRepository.save(transaction);
+            return;
+        }
+
+        if (reference != null && (ledgerJournal.holdsReference(reference)
+                || transactionQueryRepository.existsByReferenceNumber(reference))) {
+            throw new DuplicateKeyException("Idempotency reference " + reference + " is already recorded");
+        }
+
+        // Flush so the subject account carries the version this change commits with
+        accountQueryRepository.flush();
+        Account subject = fromAccount != null ? fromAccount : toAccount;
+        LedgerRow row = new LedgerRow(txnId, type, amount, subject.getCurrency(),
+                fromAccount != null ? fromAccount.getId() : null, toAccount != null ? toAccount.getId() : null,
+                now, narration, balanceAfter, reference);
+        ledgerJournal.append(new JournalEntry(row, subject.getId(), subject.getVersion()));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledgerJournal.resolve(txnId, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ledgerJournal.resolve(txnId, status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.entity.Account;
+import com.banking.core.enums.Status;
+import com.banking.core.enums.TransactionType;
+import com.banking.core.exception.AccountNotFoundException;
+import com.banking.core.exception.BankingException;
+import com.banking.core.exception.InsufficientFundsException;
+import com.netbanking.app.repository.AccountQueryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Moves money between two accounts under in-JVM stripe locks and database row locks.
+ *
+ * Same-account work queues on the stripe before they ever open a
+ * transaction, so hot accounts no longer burn connections on optimistic-lock
+ * retries. Inside the transaction both rows are taken with SELECT ... FOR UPDATE
+ * in account-number order, which keeps nodes sharing the database deadlock-free
+ * as well. Row locks make SERIALIZABLE unnecessary, so READ_COMMITTED is used.
+ */
+@Component
+class TransferEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferEngine.class);
+
+    private final AccountQueryRepository accountQueryRepository;
+    private final TransactionRecorder transactionRecorder;
+    private final AccountLockStripes lockStripes;
+    private final DailyDebitLimits debitLimits;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TransferEngine(AccountQueryRepository accountQueryRepository, TransactionRecorder transactionRecorder,
+                   AccountLockStripes lockStripes, DailyDebitLimits debitLimits,
+                   PlatformTransactionManager transactionManager) {
+        this.accountQueryRepository = accountQueryRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.lockStripes = lockStripes;
+        this.debitLimits = debitLimits;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Run work on the given accounts while holding their stripes, in a transaction
+     * that commits before the stripes are released
+     */
+    <T> T withAccountLocks(Supplier<T> work, String... accountNumbers) {
+        try (AccountLockStripes.Held ignored = lockStripes.lock(accountNumbers)) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+    }
+
+    /**
+     * Transfer between two distinct accounts; amount and account numbers are already validated
+     *
+     * @param ownerId required owner of the source account, or null for admin transfers
+     */
+    void transfer(String fromAccountNumber, Long ownerId, String toAccountNumber,
+                       BigDecimal amount, String narration, String reference) {
+        withAccountLocks(() -> {
+            settle(fromAccountNumber, ownerId, toAccountNumber, amount, narration, reference);
+            return null;
+        }, fromAccountNumber, toAccountNumber);
+    }
+
+    private void settle(String fromAccountNumber, Long ownerId, String toAccountNumber,
+                             BigDecimal amount, String narration, String reference) {
+        // Account numbers are unique and immutable, so they give every node the same lock order
+        Account fromAccount;
+        Account toAccount;
+        if (fromAccountNumber.compareTo(toAccountNumber) < 0) {
+            fromAccount = lockAccount(fromAccountNumber);
+            toAccount = lockAccount(toAccountNumber);
+        } else {
+            toAccount = lockAccount(toAccountNumber);
+            fromAccount = lockAccount(fromAccountNumber);
+        }
+
+        if (fromAccount == null) {
+            throw new AccountNotFoundException(fromAccountNumber);
+        }
+        if (ownerId != null && !Objects.equals(fromAccount.getUser().getId(), ownerId)) {
+            throw new AccessDeniedException("Account does not belong to the current user");
+        }
+        if (toAccount == null) {
+            throw new AccountNotFoundException(toAccountNumber);
+        }
+        if (fromAccount.getStatus() != Status.ACTIVE) {
+            throw new BankingException("Source account is not active", "ACCOUNT_INACTIVE");
+        }
+        if (toAccount.getStatus() != Status.ACTIVE) {
+            throw new BankingException("Destination account is not active", "ACCOUNT_INACTIVE");
+        }
+        if (!fromAccount.canWithdraw(amount)) {
+            throw new InsufficientFundsException(fromAccount.getAvailableBalance(), amount);
+        }
+        debitLimits.reserve(fromAccount.getId(), amount);
+
+        fromAccount.debit(amount);
+        toAccount.credit(amount);
+        transactionRecorder.record(TransactionType.TRANSFER, amount, fromAccount, toAccount, narration,
+                fromAccount.getBalance(), reference);
+
+        logger.info("Transfer successful - From: {} (Balance: {}), To: {} (Balance: {})",
+                fromAccountNumber, fromAccount.getBalance(), toAccountNumber, toAccount.getBalance());
+    }
+
+    private Account lockAccount(String accountNumber) {
+        return accountQueryRepository.findForUpdateByAccountNumber(accountNumber).orElse(null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.netbanking.app.util;
+
+import com.banking.core.enums.AccountType;
+
+/**
+ * Source of external identifiers. Implementations must keep the formats
+ * produced by the core AccountNumberGenerator:
+ *
+ * <ul>
+ *   <li>account: {@code 1234} + type code + {@code yyMMddHHmm} + 4 digits</li>
+ *   <li>transaction: {@code TXN} + {@code yyMMddHHmmssSSS} + 6 digits</li>
+ *   <li>loan / policy: {@code LN} / {@code POL} + {@code yyMM} + 8 digits</li>
+ *   <li>card: {@code 4} + 15 digits</li>
+ * </ul>
+ */
+public interface IdGenerator {
+
+    String generateAccountNumber(AccountType accountType);
+
+    String generateTransactionId();
+
+    String generateLoanNumber();
+
+    String generatePolicyNumber();
+
+    String generateCardNumber();
+}
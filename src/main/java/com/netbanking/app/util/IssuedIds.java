@@ -0,0 +1,52 @@
+package com.netbanking.app.util;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Identifiers a node has already issued, read back at startup so that
+ * SequenceIdGenerator resumes after them instead of starting from the clock
+ */
+public interface IssuedIds {
+
+    /** The highest transaction id the node issued that sorts after the given id */
+    Optional<String> lastTransactionIdAfter(int nodeId, String after);
+
+    /** The account number with the highest timestamp and counter the node issued, whatever its type code */
+    Optional<String> lastAccountNumber(int nodeId);
+
+    Optional<String> lastLoanNumber(int nodeId);
+
+    Optional<String> lastPolicyNumber(int nodeId);
+
+    /** Every card number the node issued; card numbers are scrambled, so there is no ordering to query by */
+    Stream<String> cardNumbers(int nodeId);
+
+    /** Nothing issued yet */
+    IssuedIds NONE = new IssuedIds() {
+        @Override
+        public Optional<String> lastTransactionIdAfter(int nodeId, String after) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> lastAccountNumber(int nodeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> lastLoanNumber(int nodeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> lastPolicyNumber(int nodeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Stream<String> cardNumbers(int nodeId) {
+            return Stream.empty();
+        }
+    };
+}
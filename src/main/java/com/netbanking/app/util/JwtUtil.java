@@ -2,7 +2,9 @@ package com.netbanking.app.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -11,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
@@ -19,6 +22,14 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_TYPE = "type";
+    public static final String CLAIM_AUTHORITIES = "authorities";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_STATUS = "status";
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String CLAIM_GENERATION = "gen";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -28,6 +39,39 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    @Value("${jwt.self-contained:false}")
+    private boolean selfContained;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    /**
+     * Build the HMAC key and the (thread-safe) parser once
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    /**
+     * Verify signature and expiry in a single parse.
+     *
+     * @return the parsed token, or empty if the token is malformed, forged or expired
+     */
+    public Optional<ParsedToken> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new ParsedToken(extractAllClaims(token)));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Extract username from JWT token
      */
@@ -51,28 +95,38 @@ public class JwtUtil {
     }
 
     /**
-     * Extract all claims from JWT token
+     * Extract all claims from JWT token. The parser rejects expired tokens itself.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
-     * Check if JWT token is expired
+     * Generate JWT token for user
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, null);
     }
 
     /**
-     * Generate JWT token for user
+     * Generate an access token for a user, tied to a refresh token family so
+     * that revoking the family revokes the token
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, Long familyId) {
         Map<String, Object> claims = new HashMap<>();
+        if (familyId != null) {
+            claims.put(CLAIM_FAMILY, familyId);
+        }
+        claims.put(CLAIM_TYPE, ParsedToken.TYPE_ACCESS);
+        claims.put(CLAIM_AUTHORITIES, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        if (selfContained && userDetails instanceof TokenSubject principal) {
+            // Sign enough into the token for the filter to skip the user lookup
+            claims.put(CLAIM_USER_ID, principal.getId());
+            claims.put(CLAIM_ROLE, principal.getRole());
+            claims.put(CLAIM_STATUS, principal.getStatus());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -87,28 +141,32 @@ public class JwtUtil {
      * Create JWT token
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Generate refresh token
+     * Generate a refresh token for one generation of a token family
      */
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(String username, long familyId, int generation) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
-        
+        claims.put(CLAIM_TYPE, ParsedToken.TYPE_REFRESH);
+        claims.put(CLAIM_FAMILY, familyId);
+        claims.put(CLAIM_GENERATION, generation);
+
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
                 .subject(username)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + refreshExpiration))
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -116,28 +174,16 @@ public class JwtUtil {
      * Validate JWT token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return parseToken(token)
+                .map(parsed -> parsed.getSubject().equals(userDetails.getUsername()))
+                .orElse(false);
     }
 
     /**
      * Validate JWT token
      */
     public Boolean validateToken(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException e) {
-            return false;
-        }
-    }
-
-    /**
-     * Get signing key for JWT
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parseToken(token).isPresent();
     }
 
     /**
@@ -157,6 +203,13 @@ public class JwtUtil {
         return expiration;
     }
 
+    /**
+     * Whether access tokens carry user id, role and status (self-contained mode)
+     */
+    public boolean isSelfContained() {
+        return selfContained;
+    }
+
     /**
      * Get refresh token expiration time in milliseconds
      */
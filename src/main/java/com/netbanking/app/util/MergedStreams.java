@@ -0,0 +1,70 @@
+package com.netbanking.app.util;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy k-way merge of streams that are each already sorted by the same order.
+ *
+ * Holds one pending element per source, so memory stays constant however
+ * long the sources are. Closing the merged stream closes every source.
+ */
+public final class MergedStreams {
+
+    private MergedStreams() {
+    }
+
+    @SafeVarargs
+    public static <T> Stream<T> merge(Comparator<? super T> order, Stream<T>... sources) {
+        Stream<T> merged = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new MergingIterator<>(order, sources), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        for (Stream<T> source : sources) {
+            merged = merged.onClose(source::close);
+        }
+        return merged;
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+
+        private final PriorityQueue<Head<T>> heads;
+
+        @SafeVarargs
+        MergingIterator(Comparator<? super T> order, Stream<T>... sources) {
+            this.heads = new PriorityQueue<>(Math.max(1, sources.length),
+                    (left, right) -> order.compare(left.value, right.value));
+            for (Stream<T> source : sources) {
+                Iterator<T> iterator = source.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head<>(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            T value = head.value;
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+            return value;
+        }
+    }
+
+    private record Head<T>(T value, Iterator<T> rest) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.netbanking.app.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Result of a single signature-and-expiry verification of a JWT.
+ *
+ * Callers read everything they need from here instead of re-parsing the token.
+ */
+public class ParsedToken {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    private final String subject;
+    private final Date expiration;
+    private final String type;
+    private final List<String> authorities;
+    private final Claims claims;
+
+    ParsedToken(Claims claims) {
+        this.claims = claims;
+        this.subject = claims.getSubject();
+        this.expiration = claims.getExpiration();
+        // Tokens issued before the type claim existed are access tokens
+        String tokenType = claims.get(JwtUtil.CLAIM_TYPE, String.class);
+        this.type = tokenType != null ? tokenType : TYPE_ACCESS;
+        List<?> rawAuthorities = claims.get(JwtUtil.CLAIM_AUTHORITIES, List.class);
+        this.authorities = rawAuthorities != null
+                ? rawAuthorities.stream().map(String::valueOf).toList()
+                : Collections.emptyList();
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    /**
+     * Whether the token carries the user id, role and status signed in by self-contained mode
+     */
+    public boolean hasUserClaims() {
+        return claims.get(JwtUtil.CLAIM_USER_ID) != null
+                && claims.get(JwtUtil.CLAIM_ROLE) != null
+                && claims.get(JwtUtil.CLAIM_STATUS) != null;
+    }
+
+    public Long getUserId() {
+        Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
+    public String getRole() {
+        return claims.get(JwtUtil.CLAIM_ROLE, String.class);
+    }
+
+    public String getStatus() {
+        return claims.get(JwtUtil.CLAIM_STATUS, String.class);
+    }
+
+    /**
+     * The refresh token family the token was issued from, or null for tokens issued outside one
+     */
+    public Long getFamilyId() {
+        Number familyId = claims.get(JwtUtil.CLAIM_FAMILY, Number.class);
+        return familyId != null ? familyId.longValue() : null;
+    }
+
+    /**
+     * A refresh token's generation within its family, or null
+     */
+    public Integer getGeneration() {
+        Number generation = claims.get(JwtUtil.CLAIM_GENERATION, Number.class);
+        return generation != null ? generation.intValue() : null;
+    }
+
+    /**
+     * Raw verified claims for callers that need custom claims
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+}
@@ -0,0 +1,338 @@
+package com.netbanking.app.util;
+
+import com.banking.core.enums.AccountType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator: timestamp + node id + per-tick counter.
+ *
+ * Each format has its own sequence packed into one AtomicLong as
+ * {@code tick * capacity + counter}, advanced with a single CAS, so ids are
+ * unique per node without a database check or a lock. When a tick's counter
+ * is used up the sequence runs ahead into the next tick, and the timestamp in
+ * the id always comes from the tick actually used, never from the wall clock.
+ * The node id (banking.id.node-id, 0-9) is the first digit of every suffix,
+ * so nodes sharing a database never collide.
+ *
+ * Sequences live in memory, so at startup each one is moved past the last id
+ * this node already issued ({@link IssuedIds}); a restart within the same
+ * minute or month, or after a sequence ran ahead of the clock, carries on
+ * from there rather than reissuing numbers.
+ *
+ * Timestamps are rendered from a per-minute cache of the date digits in
+ * banking.id.zone (UTC by default), so the hot path does no DateTimeFormatter
+ * or String.format work. The zone must have a fixed offset: in a zone with
+ * daylight saving the digits of the hour after a fall-back repeat those of
+ * the hour before, and so would the ids.
+ */
+@Component
+public class SequenceIdGenerator implements IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceIdGenerator.class);
+
+    private static final String BANK_CODE = "1234";
+
+    // 2024-01-01T00:00:00Z; card sequences count milliseconds from here
+    private static final long CARD_EPOCH_MILLIS = 1704067200000L;
+    private static final long CARD_SPACE = 100_000_000_000_000L;
+    private static final long CARD_PER_MILLI = 100;
+    private static final long CARD_FIRST_MULTIPLIER = 48_271;
+    private static final long CARD_FIRST_OFFSET = 12_345_678_901L;
+    private static final long CARD_SECOND_MULTIPLIER = 40_503;
+    private static final long CARD_SECOND_OFFSET = 98_765_432_109L;
+
+    // How far back to look for transaction ids issued ahead of the clock, e.g. before it was stepped back
+    private static final Duration TRANSACTION_LOOKBACK = Duration.ofDays(1);
+
+    private final int nodeId;
+    private final LongSupplier clock;
+    private final ZoneId zone;
+
+    private final Sequence transactions = new Sequence(100_000);
+    private final Sequence accounts = new Sequence(1_000);
+    private final Sequence loans = new Sequence(10_000_000);
+    private final Sequence policies = new Sequence(10_000_000);
+    private final Sequence cards = new Sequence(CARD_PER_MILLI);
+
+    private volatile MinuteDigits minuteDigits;
+
+    @Autowired
+    public SequenceIdGenerator(@Value("${banking.id.node-id:0}") int nodeId,
+                               @Value("${banking.id.zone:UTC}") ZoneId zone, IssuedIds issuedIds) {
+        this(nodeId, System::currentTimeMillis, zone);
+        resumeAfter(issuedIds);
+    }
+
+    /**
+     * A generator with no history, for benchmarks and tests; ids may repeat
+     * those of an earlier generator on the same node
+     */
+    public SequenceIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis, ZoneOffset.UTC);
+    }
+
+    SequenceIdGenerator(int nodeId, LongSupplier clock, ZoneId zone) {
+        if (nodeId < 0 || nodeId > 9) {
+            throw new IllegalArgumentException("banking.id.node-id must be between 0 and 9");
+        }
+        if (!zone.getRules().isFixedOffset()) {
+            throw new IllegalArgumentException("banking.id.zone must have a fixed offset, such as UTC; " + zone
+                    + " changes its offset, so ids would repeat when its clocks go back");
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.zone = zone;
+    }
+
+    /**
+     * Move every sequence past the ids this node has already issued
+     */
+    void resumeAfter(IssuedIds issuedIds) {
+        String lookback = "TXN" + new String(minuteDigits(clock.getAsLong() - TRANSACTION_LOOKBACK.toMillis()).digits);
+        resume(transactions, issuedIds.lastTransactionIdAfter(nodeId, lookback), this::transactionValue);
+        resume(accounts, issuedIds.lastAccountNumber(nodeId), this::accountValue);
+        resume(loans, issuedIds.lastLoanNumber(nodeId), id -> monthlyValue(id, "LN", loans));
+        resume(policies, issuedIds.lastPolicyNumber(nodeId), id -> monthlyValue(id, "POL", policies));
+
+        // Values whose tick is far past the clock did not come from this generator
+        long latestPlausible = (clock.getAsLong() - CARD_EPOCH_MILLIS + TRANSACTION_LOOKBACK.toMillis()) * CARD_PER_MILLI;
+        try (var numbers = issuedIds.cardNumbers(nodeId)) {
+            numbers.filter(number -> number.length() == 16)
+                    .mapToLong(number -> unscramble(Long.parseLong(number, 2, 16, 10)))
+                    .filter(value -> value <= latestPlausible)
+                    .max()
+                    .ifPresent(cards::resumeAfter);
+        }
+    }
+
+    private static void resume(Sequence sequence, Optional<String> lastIssued, Function<String, Long> valueOf) {
+        lastIssued.ifPresent(id -> {
+            try {
+                sequence.resumeAfter(valueOf.apply(id));
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring issued id {} that does not match the generated format: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private long transactionValue(String id) {
+        long millis = epochMillis(id, 3) + Long.parseLong(id, 13, 15, 10) * 1000 + Long.parseLong(id, 15, 18, 10);
+        return millis * transactions.capacity + Long.parseLong(id, 19, 24, 10);
+    }
+
+    private long accountValue(String id) {
+        return epochMillis(id, 6) / 60_000 * accounts.capacity + Long.parseLong(id, 17, 20, 10);
+    }
+
+    private static long monthlyValue(String id, String prefix, Sequence sequence) {
+        int length = prefix.length();
+        long monthIndex = (2000 + Long.parseLong(id, length, length + 2, 10)) * 12
+                + Long.parseLong(id, length + 2, length + 4, 10) - 1;
+        return monthIndex * sequence.capacity + Long.parseLong(id, length + 5, length + 12, 10);
+    }
+
+    /**
+     * The instant of the {@code yyMMddHHmm} digits at the given offset
+     */
+    private long epochMillis(String id, int offset) {
+        LocalDateTime time = LocalDateTime.of(
+                2000 + Integer.parseInt(id, offset, offset + 2, 10),
+                Integer.parseInt(id, offset + 2, offset + 4, 10),
+                Integer.parseInt(id, offset + 4, offset + 6, 10),
+                Integer.parseInt(id, offset + 6, offset + 8, 10),
+                Integer.parseInt(id, offset + 8, offset + 10, 10));
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public String generateTransactionId() {
+        long value = transactions.next(clock.getAsLong());
+        long millis = value / transactions.capacity;
+        MinuteDigits minute = minuteDigits(millis);
+        int withinMinute = (int) (millis - minute.startMillis);
+
+        char[] id = new char[24];
+        id[0] = 'T';
+        id[1] = 'X';
+        id[2] = 'N';
+        System.arraycopy(minute.digits, 0, id, 3, 10);
+        writeDigits(id, 13, withinMinute / 1000, 2);
+        writeDigits(id, 15, withinMinute % 1000, 3);
+        id[18] = digit(nodeId);
+        writeDigits(id, 19, value % transactions.capacity, 5);
+        return new String(id);
+    }
+
+    @Override
+    public String generateAccountNumber(AccountType accountType) {
+        long epochMinute = clock.getAsLong() / 60_000;
+        long value = accounts.next(epochMinute);
+        MinuteDigits minute = minuteDigits(value / accounts.capacity * 60_000);
+
+        char[] id = new char[20];
+        BANK_CODE.getChars(0, 4, id, 0);
+        typeCode(accountType).getChars(0, 2, id, 4);
+        System.arraycopy(minute.digits, 0, id, 6, 10);
+        id[16] = digit(nodeId);
+        writeDigits(id, 17, value % accounts.capacity, 3);
+        return new String(id);
+    }
+
+    @Override
+    public String generateLoanNumber() {
+        return monthlyId("LN", loans);
+    }
+
+    @Override
+    public String generatePolicyNumber() {
+        return monthlyId("POL", policies);
+    }
+
+    /**
+     * The sequence is pushed through a fixed permutation so consecutive cards
+     * do not get visibly consecutive numbers. This is not a secret; it only
+     * stops numbers from being trivially guessable.
+     */
+    @Override
+    public String generateCardNumber() {
+        long value = cards.next(clock.getAsLong() - CARD_EPOCH_MILLIS) % CARD_SPACE;
+
+        char[] id = new char[16];
+        id[0] = '4';
+        id[1] = digit(nodeId);
+        writeDigits(id, 2, scramble(value), 14);
+        return new String(id);
+    }
+
+    private String monthlyId(String prefix, Sequence sequence) {
+        MinuteDigits now = minuteDigits(clock.getAsLong());
+        long value = sequence.next(now.monthIndex);
+        long monthIndex = value / sequence.capacity;
+
+        int length = prefix.length();
+        char[] id = new char[length + 12];
+        prefix.getChars(0, length, id, 0);
+        writeDigits(id, length, (monthIndex / 12) % 100, 2);
+        writeDigits(id, length + 2, monthIndex % 12 + 1, 2);
+        id[length + 4] = digit(nodeId);
+        writeDigits(id, length + 5, value % sequence.capacity, 7);
+        return new String(id);
+    }
+
+    /**
+     * The {@code yyMMddHHmm} digits for the minute containing the given instant
+     */
+    private MinuteDigits minuteDigits(long epochMillis) {
+        MinuteDigits cached = minuteDigits;
+        if (cached != null && epochMillis >= cached.startMillis && epochMillis < cached.startMillis + 60_000) {
+            return cached;
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        long startMillis = epochMillis - time.getSecond() * 1000L - time.getNano() / 1_000_000;
+
+        char[] digits = new char[10];
+        writeDigits(digits, 0, time.getYear() % 100, 2);
+        writeDigits(digits, 2, time.getMonthValue(), 2);
+        writeDigits(digits, 4, time.getDayOfMonth(), 2);
+        writeDigits(digits, 6, time.getHour(), 2);
+        writeDigits(digits, 8, time.getMinute(), 2);
+        long monthIndex = time.getYear() * 12L + time.getMonthValue() - 1;
+
+        MinuteDigits fresh = new MinuteDigits(startMillis, digits, monthIndex);
+        minuteDigits = fresh;
+        return fresh;
+    }
+
+    /**
+     * Bijection on [0, 10^14): affine step, digit reversal, affine step
+     */
+    static long scramble(long value) {
+        long x = (value * CARD_FIRST_MULTIPLIER + CARD_FIRST_OFFSET) % CARD_SPACE;
+        return (reverseDigits(x) * CARD_SECOND_MULTIPLIER + CARD_SECOND_OFFSET) % CARD_SPACE;
+    }
+
+    /**
+     * Inverse of {@link #scramble}; only used at startup, so BigInteger is fine
+     */
+    static long unscramble(long scrambled) {
+        long reversed = inverseAffine(scrambled, CARD_SECOND_MULTIPLIER, CARD_SECOND_OFFSET);
+        return inverseAffine(reverseDigits(reversed), CARD_FIRST_MULTIPLIER, CARD_FIRST_OFFSET);
+    }
+
+    private static long inverseAffine(long y, long multiplier, long offset) {
+        BigInteger space = BigInteger.valueOf(CARD_SPACE);
+        return BigInteger.valueOf(y - offset)
+                .multiply(BigInteger.valueOf(multiplier).modInverse(space))
+                .mod(space)
+                .longValue();
+    }
+
+    private static long reverseDigits(long x) {
+        long reversed = 0;
+        for (int i = 0; i < 14; i++) {
+            reversed = reversed * 10 + x % 10;
+            x /= 10;
+        }
+        return reversed;
+    }
+
+    private static String typeCode(AccountType accountType) {
+        return switch (accountType) {
+            case SAVINGS -> "01";
+            case CURRENT -> "02";
+            case SALARY -> "03";
+            case FIXED_DEPOSIT -> "04";
+        };
+    }
+
+    private static void writeDigits(char[] target, int offset, long value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = digit((int) (value % 10));
+            value /= 10;
+        }
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+
+    private record MinuteDigits(long startMillis, char[] digits, long monthIndex) {
+    }
+
+    /**
+     * Lock-free {@code tick * capacity + counter} sequence that never goes
+     * backwards, even if the clock does
+     */
+    private static final class Sequence {
+
+        private final long capacity;
+        private final AtomicLong state = new AtomicLong();
+
+        private Sequence(long capacity) {
+            this.capacity = capacity;
+        }
+
+        long next(long tick) {
+            return state.accumulateAndGet(tick * capacity, (current, floor) -> Math.max(current + 1, floor));
+        }
+
+        void resumeAfter(long issued) {
+            state.accumulateAndGet(issued, Math::max);
+        }
+    }
+}
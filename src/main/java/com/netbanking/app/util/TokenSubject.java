@@ -0,0 +1,14 @@
+package com.netbanking.app.util;
+
+/**
+ * A user as JwtUtil signs it into a self-contained access token, alongside
+ * the username and authorities
+ */
+public interface TokenSubject {
+
+    Long getId();
+
+    String getRole();
+
+    String getStatus();
+}
@@ -0,0 +1,13 @@
+-- Indexes behind keyset pagination, on top of the ones the core entities declare.
+-- Applied automatically on the embedded database; run once as a migration elsewhere.
+-- Descending to match the newest-first ORDER BY, so slices are read straight off the index.
+
+-- Account transaction history, one index per side of the union
+CREATE INDEX idx_transaction_from_ts_id ON transactions (from_account_id DESC, timestamp DESC, id DESC);
+CREATE INDEX idx_transaction_to_ts_id ON transactions (to_account_id DESC, timestamp DESC, id DESC);
+
+-- A user's accounts, newest first
+CREATE INDEX idx_account_user_created_id ON accounts (user_id DESC, created_at DESC, id DESC);
+
+-- Idempotency references of retried postings; a replay that reaches the database fails here and rolls back
+CREATE UNIQUE INDEX uk_transaction_reference_number ON transactions (reference_number);
@@ -0,0 +1,158 @@
+package com.netbanking.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one history page for an account with 210k ledger rows, at page 1
+ * and page 10,000: OFFSET paging with its COUNT (what the core
+ * findByAccount(Account, Pageable) does) against the keyset seek that
+ * TransactionQueryRepository uses.
+ *
+ * Runs the same SQL shape against an in-memory H2 table carrying the
+ * (from_account_id, timestamp, id) index from db/indexes.sql.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.HistoryPaginationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int ROWS = 280_000;
+    private static final long ACCOUNT_ID = 1;
+
+    private static final String OFFSET_SQL = "SELECT id, txn_id, amount, timestamp FROM transactions "
+            + "WHERE from_account_id = ? ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM transactions WHERE from_account_id = ?";
+    private static final String KEYSET_SQL = "SELECT id, txn_id, amount, timestamp FROM transactions "
+            + "WHERE from_account_id = ? AND timestamp <= ? AND (timestamp < ? OR id < ?) "
+            + "ORDER BY from_account_id DESC, timestamp DESC, id DESC LIMIT ?";
+
+    @Param({"1", "10000"})
+    private int page;
+
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement countQuery;
+    private PreparedStatement keysetQuery;
+    private Timestamp cursorTimestamp;
+    private long cursorId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pagination;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS transactions");
+            statement.execute("CREATE TABLE transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "txn_id VARCHAR(50), amount DECIMAL(19, 2), from_account_id BIGINT, to_account_id BIGINT, "
+                    + "timestamp TIMESTAMP)");
+            statement.execute("CREATE INDEX idx_transaction_from_ts_id ON transactions "
+                    + "(from_account_id DESC, timestamp DESC, id DESC)");
+        }
+
+        connection.setAutoCommit(false);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO transactions "
+                + "(txn_id, amount, from_account_id, to_account_id, timestamp) VALUES (?, 10.00, ?, 2, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, "TXN" + i);
+                // Interleave a second account so the index is not one contiguous run
+                insert.setLong(2, i % 4 == 3 ? 3 : ACCOUNT_ID);
+                insert.setTimestamp(3, Timestamp.valueOf(base.plusSeconds(i / 2)));
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        offsetQuery = connection.prepareStatement(OFFSET_SQL);
+        countQuery = connection.prepareStatement(COUNT_SQL);
+        keysetQuery = connection.prepareStatement(KEYSET_SQL);
+
+        // The cursor a client would hold after reading the previous page
+        cursorTimestamp = Timestamp.valueOf(LocalDateTime.of(9999, 12, 31, 23, 59));
+        cursorId = Long.MAX_VALUE;
+        if (page > 1) {
+            offsetQuery.setLong(1, ACCOUNT_ID);
+            offsetQuery.setInt(2, 1);
+            offsetQuery.setInt(3, (page - 1) * PAGE_SIZE - 1);
+            try (ResultSet row = offsetQuery.executeQuery()) {
+                row.next();
+                cursorId = row.getLong(1);
+                cursorTimestamp = row.getTimestamp(4);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void offsetWithCount(Blackhole blackhole) throws SQLException {
+        countQuery.setLong(1, ACCOUNT_ID);
+        try (ResultSet count = countQuery.executeQuery()) {
+            count.next();
+            blackhole.consume(count.getLong(1));
+        }
+        offsetQuery.setLong(1, ACCOUNT_ID);
+        offsetQuery.setInt(2, PAGE_SIZE);
+        offsetQuery.setInt(3, (page - 1) * PAGE_SIZE);
+        consume(offsetQuery, blackhole);
+    }
+
+    @Benchmark
+    public void keyset(Blackhole blackhole) throws SQLException {
+        keysetQuery.setLong(1, ACCOUNT_ID);
+        keysetQuery.setTimestamp(2, cursorTimestamp);
+        keysetQuery.setTimestamp(3, cursorTimestamp);
+        keysetQuery.setLong(4, cursorId);
+        // One extra row tells the caller whether there is a next slice
+        keysetQuery.setInt(5, PAGE_SIZE + 1);
+        consume(keysetQuery, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+                blackhole.consume(rows.getString(2));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HistoryPaginationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
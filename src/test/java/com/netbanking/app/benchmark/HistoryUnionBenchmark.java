@@ -0,0 +1,200 @@
+package com.netbanking.app.benchmark;
+
+import com.netbanking.app.util.MergedStreams;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One account's 30-day history out of a generated transactions table (10M
+ * rows, 10,000 accounts, about a year of activity) on H2 in MySQL mode:
+ * the core {@code from_account_id = ? OR to_account_id = ?} query against
+ * the two index-backed sides streamed through {@link MergedStreams}, as
+ * TransactionHistoryReader does.
+ *
+ * The table is generated once into target/benchmark-data and reused by later
+ * runs; -p rows=1000000 gives a quicker, smaller run.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.HistoryUnionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class HistoryUnionBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final long ACCOUNT_ID = 4_242;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final String COLUMNS = "SELECT id, txn_id, amount, from_account_id, to_account_id, timestamp "
+            + "FROM transactions ";
+    private static final String OR_SQL = COLUMNS
+            + "WHERE (from_account_id = ? OR to_account_id = ?) AND timestamp >= ? AND timestamp < ? "
+            + "ORDER BY timestamp DESC, id DESC";
+    private static final String SENT_SQL = COLUMNS
+            + "WHERE from_account_id = ? AND timestamp >= ? AND timestamp < ? "
+            + "ORDER BY from_account_id DESC, timestamp DESC, id DESC";
+    private static final String RECEIVED_SQL = COLUMNS
+            + "WHERE to_account_id = ? AND timestamp >= ? AND timestamp < ? "
+            + "ORDER BY to_account_id DESC, timestamp DESC, id DESC";
+
+    private static final Comparator<Row> NEWEST_FIRST = Comparator.comparing(Row::timestamp)
+            .thenComparingLong(Row::id)
+            .reversed();
+
+    @Param({"10000000"})
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement orQuery;
+    private PreparedStatement sentQuery;
+    private PreparedStatement receivedQuery;
+    private Timestamp from;
+    private Timestamp to;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:file:./target/benchmark-data/history-" + rows
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        if (!generated()) {
+            generate();
+        }
+
+        orQuery = connection.prepareStatement(OR_SQL);
+        sentQuery = connection.prepareStatement(SENT_SQL);
+        receivedQuery = connection.prepareStatement(RECEIVED_SQL);
+        for (PreparedStatement query : new PreparedStatement[]{orQuery, sentQuery, receivedQuery}) {
+            query.setFetchSize(500);
+        }
+
+        // A 30-day statement in the middle of the generated period
+        LocalDateTime end = EPOCH.plusSeconds(rows * 3L / 2);
+        from = Timestamp.valueOf(end.minusDays(30));
+        to = Timestamp.valueOf(end);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void orQuery(Blackhole blackhole) throws SQLException {
+        orQuery.setLong(1, ACCOUNT_ID);
+        orQuery.setLong(2, ACCOUNT_ID);
+        orQuery.setTimestamp(3, from);
+        orQuery.setTimestamp(4, to);
+        try (ResultSet resultSet = orQuery.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(Row.of(resultSet));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mergedSides(Blackhole blackhole) throws SQLException {
+        try (Stream<Row> history = MergedStreams.merge(NEWEST_FIRST, side(sentQuery), side(receivedQuery))) {
+            history.forEach(blackhole::consume);
+        }
+    }
+
+    private Stream<Row> side(PreparedStatement query) throws SQLException {
+        query.setLong(1, ACCOUNT_ID);
+        query.setTimestamp(2, from);
+        query.setTimestamp(3, to);
+        ResultSet resultSet = query.executeQuery();
+        Spliterator<Row> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Row> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(Row.of(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private boolean generated() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet tables = statement.executeQuery("SELECT COUNT(*) FROM information_schema.indexes "
+                     + "WHERE index_name = 'idx_transaction_to_ts_id'")) {
+            tables.next();
+            return tables.getLong(1) > 0;
+        }
+    }
+
+    /**
+     * Ids in time order, one row every 3 seconds, from and to spread pseudo-randomly over the accounts
+     */
+    private void generate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS transactions");
+            statement.execute("CREATE TABLE transactions (id BIGINT PRIMARY KEY, txn_id VARCHAR(50), "
+                    + "amount DECIMAL(19, 2), from_account_id BIGINT, to_account_id BIGINT, timestamp TIMESTAMP)");
+            statement.execute("INSERT INTO transactions SELECT x, CONCAT('TXN', x), 10.00, "
+                    + "MOD(x * 7919, " + ACCOUNTS + ") + 1, "
+                    + "MOD(MOD(x * 7919, " + ACCOUNTS + ") + 1 + MOD(x * 31, " + (ACCOUNTS - 1) + "), " + ACCOUNTS + ") + 1, "
+                    + "DATEADD(SECOND, x * 3, TIMESTAMP '2024-01-01 00:00:00') "
+                    + "FROM SYSTEM_RANGE(1, " + rows + ") AS r(x)");
+            // Same indexes as db/indexes.sql, built after the load
+            statement.execute("CREATE INDEX idx_transaction_from_ts_id ON transactions "
+                    + "(from_account_id DESC, timestamp DESC, id DESC)");
+            statement.execute("CREATE INDEX idx_transaction_to_ts_id ON transactions "
+                    + "(to_account_id DESC, timestamp DESC, id DESC)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private record Row(long id, String txnId, long fromAccountId, long toAccountId, LocalDateTime timestamp) {
+
+        static Row of(ResultSet resultSet) throws SQLException {
+            return new Row(resultSet.getLong(1), resultSet.getString(2), resultSet.getLong(4), resultSet.getLong(5),
+                    resultSet.getTimestamp(6).toLocalDateTime());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HistoryUnionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.netbanking.app.benchmark;
+
+import com.banking.core.enums.AccountType;
+import com.banking.core.util.AccountNumberGenerator;
+import com.netbanking.app.util.SequenceIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids generated per second under 16 threads: the core AccountNumberGenerator
+ * (SecureRandom + DateTimeFormatter + String.format) against SequenceIdGenerator.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.IdGeneratorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private SequenceIdGenerator sequenceIdGenerator;
+
+    @Setup
+    public void setUp() {
+        sequenceIdGenerator = new SequenceIdGenerator(1);
+    }
+
+    @Benchmark
+    public String legacyTransactionId() {
+        return AccountNumberGenerator.generateTransactionId();
+    }
+
+    @Benchmark
+    public String sequenceTransactionId() {
+        return sequenceIdGenerator.generateTransactionId();
+    }
+
+    @Benchmark
+    public String legacyAccountNumber() {
+        return AccountNumberGenerator.generateAccountNumber(AccountType.SAVINGS);
+    }
+
+    @Benchmark
+    public String sequenceAccountNumber() {
+        return sequenceIdGenerator.generateAccountNumber(AccountType.SAVINGS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IdGeneratorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
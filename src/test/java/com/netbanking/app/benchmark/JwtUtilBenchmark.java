@@ -0,0 +1,92 @@
+package com.netbanking.app.benchmark;
+
+import com.netbanking.app.util.JwtUtil;
+import com.netbanking.app.util.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second by the authentication filter, before and after
+ * the single-parse JwtUtil redesign.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.JwtUtilBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForJwtParsing1234567890";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 7_200_000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken(new User("bench@bank.com", "n/a",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    /**
+     * The filter's previous path: validateToken (2 parses), extractUsername (1 parse)
+     * and validateToken(token, userDetails) (2 parses), each rebuilding key and parser.
+     */
+    @Benchmark
+    public boolean legacyFilterPath() {
+        if (!legacyExtract(token).getExpiration().after(new Date())) {
+            return false;
+        }
+        legacyExtract(token);
+        String username = legacyExtract(token).getSubject();
+        String again = legacyExtract(token).getSubject();
+        return username.equals(again) && legacyExtract(token).getExpiration().after(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return jwtUtil.parseToken(token)
+                .map(ParsedToken::isAccessToken)
+                .orElse(false);
+    }
+
+    private static Claims legacyExtract(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
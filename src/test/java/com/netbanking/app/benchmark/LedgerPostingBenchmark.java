@@ -0,0 +1,111 @@
+package com.netbanking.app.benchmark;
+
+import com.banking.core.entity.Account;
+import com.netbanking.app.ledger.LedgerTable;
+import com.netbanking.app.ledger.MinorUnits;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Postings per second, and bytes allocated per posting (gc.alloc.rate.norm),
+ * for the entity path (Account.canWithdraw/debit/credit on BigDecimal)
+ * against the LedgerTable the batch settler posts through. Each posting moves
+ * 1.00 from account i to account i + 1 around a ring of 1024 accounts.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.LedgerPostingBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerPostingBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal OVERDRAFT_LIMIT = new BigDecimal("500.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private Account[] accounts;
+    private LedgerTable ledgerTable;
+    private long minorAmount;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        accounts = new Account[ACCOUNTS];
+        ledgerTable = new LedgerTable(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new Account();
+            accounts[i].setBalance(OPENING_BALANCE);
+            accounts[i].setOverdraftLimit(OVERDRAFT_LIMIT);
+            ledgerTable.load(i + 1, MinorUnits.toMinor(OPENING_BALANCE), MinorUnits.toMinor(OVERDRAFT_LIMIT));
+        }
+        minorAmount = MinorUnits.toMinor(AMOUNT);
+    }
+
+    /**
+     * What TransferEngine does with the locked rows
+     */
+    @Benchmark
+    public BigDecimal entityPosting() {
+        int from = next++ & (ACCOUNTS - 1);
+        Account fromAccount = accounts[from];
+        Account toAccount = accounts[(from + 1) & (ACCOUNTS - 1)];
+        if (!fromAccount.canWithdraw(AMOUNT)) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        fromAccount.debit(AMOUNT);
+        toAccount.credit(AMOUNT);
+        return fromAccount.getBalance();
+    }
+
+    @Benchmark
+    public long ledgerTablePosting() {
+        long from = (next++ & (ACCOUNTS - 1)) + 1;
+        long to = (from & (ACCOUNTS - 1)) + 1;
+        if (!ledgerTable.canDebit(from, minorAmount)) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        long balanceAfter = ledgerTable.debit(from, minorAmount);
+        ledgerTable.credit(to, minorAmount);
+        return balanceAfter;
+    }
+
+    /**
+     * The batch settler's full per-item cost: the request amount converted in,
+     * the ledger row's balance-after converted out
+     */
+    @Benchmark
+    public BigDecimal ledgerTablePostingWithConversion() {
+        long from = (next++ & (ACCOUNTS - 1)) + 1;
+        long to = (from & (ACCOUNTS - 1)) + 1;
+        long amount = MinorUnits.toMinor(AMOUNT);
+        if (!ledgerTable.canDebit(from, amount)) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        long balanceAfter = ledgerTable.debit(from, amount);
+        ledgerTable.credit(to, amount);
+        return MinorUnits.toDecimal(balanceAfter);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LedgerPostingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,240 @@
+package com.netbanking.app.benchmark;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.UserRepository;
+import com.netbanking.app.NetBankingApplication;
+import com.netbanking.app.security.UserDetailsServiceImpl;
+import com.netbanking.app.util.JwtUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load test of the app on platform threads and then on
+ * virtual threads (the {@code virtual-threads} profile).
+ *
+ * Each mode gets a fresh application on a random port and a fresh in-memory
+ * database with one user and account per client. Every client loops on its
+ * own account: 70% first-page history reads, 30% deposits, each one a JDBC
+ * round trip or several. Clients run on virtual threads in both modes, so
+ * the client side is never what runs out of threads. The rate limiter is
+ * switched off. Reports throughput, p50 and p99 per mode.
+ *
+ * H2 in memory never waits on I/O, so it understates what virtual threads buy
+ * against a networked database; extra arguments are passed to Spring, e.g.
+ * {@code --spring.profiles.active=prod} to run against MySQL.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Dclients=2000 -Dduration=30 -Dwarmup=10 \
+ *      -cp target/test-classes:target/classes:$(cat target/cp.txt) com.netbanking.app.benchmark.LoadTestHarness
+ * </pre>
+ */
+public class LoadTestHarness {
+
+    private static final int CLIENTS = Integer.getInteger("clients", 2000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("duration", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("warmup", 10));
+    private static final int READ_PERCENT = 70;
+
+    public static void main(String[] args) throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.add(run(virtual, args));
+        }
+
+        System.out.printf("%n%d clients, %ds measured after %ds warmup%n", CLIENTS,
+                DURATION.toSeconds(), WARMUP.toSeconds());
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "requests", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %12d %10.0f %10.1f %10.1f %8d%n", result.mode, result.latencies.length,
+                    result.latencies.length / (double) DURATION.toSeconds(),
+                    percentile(result.latencies, 50), percentile(result.latencies, 99), result.errors);
+        }
+        System.exit(0);
+    }
+
+    private static Result run(boolean virtual, String[] args) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        // Passed as arguments rather than default properties so they win over application.yml
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--banking.security.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.netbanking.app=WARN",
+                "--logging.level.com.banking.core=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.orm.jdbc.bind=WARN"));
+        arguments.addAll(List.of(args));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(NetBankingApplication.class);
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(arguments.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Client> clients = seed(context, "http://localhost:" + port + "/api");
+
+            long warmupEnds = System.nanoTime() + WARMUP.toNanos();
+            long ends = warmupEnds + DURATION.toNanos();
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            List<Future<long[]>> futures = new ArrayList<>();
+            long errors = 0;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Client client : clients) {
+                    futures.add(executor.submit(() -> client.loop(http, warmupEnds, ends)));
+                }
+                List<long[]> perClient = new ArrayList<>();
+                for (Future<long[]> future : futures) {
+                    perClient.add(future.get());
+                }
+                for (Client client : clients) {
+                    errors += client.errors;
+                }
+                long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+                System.out.printf("%s: %d requests, %d errors%n", mode, latencies.length, errors);
+                return new Result(mode, latencies, errors);
+            }
+        }
+    }
+
+    private static List<Client> seed(ConfigurableApplicationContext context, String baseUrl) {
+        BranchRepository branchRepository = context.getBean(BranchRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+
+        Address address = new Address("1 Load St", "Test City", "TS", "12345", "USA");
+        // H2 has no FOR UPDATE OF, so account locks that join the branch also lock the branch row;
+        // one branch per client keeps that from serializing the whole run
+        List<Branch> branches = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            branches.add(new Branch("Load Branch " + i, String.format("LOAD%07d", i), address));
+        }
+        branchRepository.saveAll(branches);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setFirstName("Load");
+            user.setLastName("Client" + i);
+            user.setEmail("load" + i + "@bank.com");
+            user.setMobile(String.format("+1-555-%06d", i));
+            user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            user.setPasswordHash("unused");
+            user.setRole("ROLE_USER");
+            user.setAddress(address);
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            Account account = new Account(String.format("9999%014d", i), AccountType.SAVINGS, users.get(i),
+                    branches.get(i));
+            account.setBalance(new BigDecimal("1000.00"));
+            accounts.add(account);
+        }
+        accountRepository.saveAll(accounts);
+
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            String token = jwtUtil.generateToken(UserDetailsServiceImpl.UserPrincipal.create(users.get(i)));
+            clients.add(new Client(baseUrl + "/accounts/" + accounts.get(i).getAccountNumber(), "Bearer " + token));
+        }
+        return clients;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(String mode, long[] latencies, long errors) {
+    }
+
+    private static final class Client {
+
+        private final HttpRequest read;
+        private final HttpRequest deposit;
+        private long errors;
+
+        Client(String accountUrl, String authorization) {
+            this.read = HttpRequest.newBuilder(URI.create(accountUrl + "/transactions?size=20"))
+                    .header("Authorization", authorization)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            this.deposit = HttpRequest.newBuilder(URI.create(accountUrl + "/deposit"))
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 1.00, \"narration\": \"load\"}"))
+                    .build();
+        }
+
+        /**
+         * @return latencies in nanoseconds of requests that completed inside the measured window
+         */
+        long[] loop(HttpClient http, long warmupEnds, long ends) {
+            long[] latencies = new long[1024];
+            int count = 0;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < ends) {
+                HttpRequest request = random.nextInt(100) < READ_PERCENT ? read : deposit;
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                        continue;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                    continue;
+                }
+                long finished = System.nanoTime();
+                if (finished >= warmupEnds && finished <= ends) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = finished - now;
+                }
+            }
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.netbanking.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlLoggingCheckTest {
+
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    @AfterEach
+    void resetLevels() {
+        loggingSystem.setLogLevel("org.hibernate.orm.jdbc.bind", null);
+        loggingSystem.setLogLevel("org.hibernate.SQL", null);
+    }
+
+    @Test
+    void testQuietConfigurationHasNoFindings() {
+        loggingSystem.setLogLevel("org.hibernate.orm.jdbc.bind", LogLevel.WARN);
+        loggingSystem.setLogLevel("org.hibernate.SQL", LogLevel.WARN);
+
+        assertTrue(new SqlLoggingCheck(new MockEnvironment()).findings().isEmpty());
+    }
+
+    @Test
+    void testReportsTraceBindingStatementLoggingAndShowSql() {
+        loggingSystem.setLogLevel("org.hibernate.orm.jdbc.bind", LogLevel.TRACE);
+        loggingSystem.setLogLevel("org.hibernate.SQL", LogLevel.DEBUG);
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.jpa.show-sql", "true");
+
+        List<String> findings = new SqlLoggingCheck(environment).findings();
+
+        assertEquals(List.of("org.hibernate.orm.jdbc.bind is at TRACE", "org.hibernate.SQL is at DEBUG",
+                "spring.jpa.show-sql is true"), findings);
+    }
+}
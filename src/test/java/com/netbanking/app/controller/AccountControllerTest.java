@@ -0,0 +1,578 @@
+package com.netbanking.app.controller;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.Transaction;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.TransactionType;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.TransactionRepository;
+import com.banking.core.repository.UserRepository;
+import com.banking.core.util.PasswordUtil;
+import com.jayway.jsonpath.JsonPath;
+import com.netbanking.app.cache.AccountSummaryCache;
+import com.netbanking.app.cache.BalanceCache;
+import com.netbanking.app.security.PrincipalCache;
+import com.netbanking.app.security.UserDetailsServiceImpl;
+import com.netbanking.app.util.IdGenerator;
+import com.netbanking.app.util.JwtUtil;
+import com.netbanking.app.util.KeysetCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for AccountController, including the number of SQL
+ * statements each endpoint issues.
+ *
+ * Not @Transactional: the service transactions must commit for their UPDATEs
+ * to be flushed and counted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private AccountSummaryCache accountSummaryCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private IdGenerator idGenerator;
+
+    private User owner;
+    private User otherUser;
+    private Branch branch;
+    private Account account;
+    private Account otherAccount;
+    private String ownerToken;
+
+    @BeforeEach
+    void setUp() {
+        Address address = new Address("1 Bank St", "Test City", "TS", "12345", "USA");
+        branch = branchRepository.save(new Branch("Test Branch", "TEST0000001", address));
+
+        owner = userRepository.save(newUser("owner@bank.com", "+1-555-0101"));
+        otherUser = userRepository.save(newUser("other@bank.com", "+1-555-0102"));
+
+        account = accountRepository.save(newAccount("123401000000000001", owner, new BigDecimal("1000.00")));
+        otherAccount = accountRepository.save(newAccount("123401000000000002", otherUser, new BigDecimal("500.00")));
+
+        // Warm the principal cache so the filter does not add its own user lookup to the counts
+        UserDetailsServiceImpl.UserPrincipal principal = UserDetailsServiceImpl.UserPrincipal.create(owner);
+        ownerToken = jwtUtil.generateToken(principal);
+        principalCache.put(owner.getEmail(), principal, new Date(System.currentTimeMillis() + jwtUtil.getExpiration()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        principalCache.evictAll();
+        balanceCache.evictAll();
+        accountSummaryCache.evictAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        branchRepository.deleteAll();
+    }
+
+    @Test
+    void testGetBalanceIssuesSingleQuery() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(get("/accounts/{accountNumber}/balance", account.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1000.00"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testBalanceIsServedFromCacheAndWrittenThroughOnDeposit() throws Exception {
+        String balanceUrl = "/accounts/" + account.getAccountNumber() + "/balance";
+        mockMvc.perform(get(balanceUrl).header("Authorization", "Bearer " + ownerToken))
+                .andExpect(content().string("1000.00"));
+
+        mockMvc.perform(post("/accounts/{accountNumber}/deposit", account.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 250.00}"))
+                .andExpect(status().isOk());
+
+        Statistics statistics = resetStatistics();
+        mockMvc.perform(get(balanceUrl).header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1250.00"));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testAccountSummaryIsMaintainedIncrementally() throws Exception {
+        mockMvc.perform(get("/accounts/summary").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAccounts").value(1))
+                .andExpect(jsonPath("$.totalBalance").value(1000.00));
+
+        mockMvc.perform(post("/accounts/transfer")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(transferJson(account.getAccountNumber(), otherAccount.getAccountNumber(), "300.00")))
+                .andExpect(status().isOk());
+
+        Statistics statistics = resetStatistics();
+        mockMvc.perform(get("/accounts/summary").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalBalance").value(700.00))
+                .andExpect(jsonPath("$.activeAccounts").value(1))
+                .andExpect(jsonPath("$.byType.SAVINGS.count").value(1))
+                .andExpect(jsonPath("$.byType.SAVINGS.balance").value(700.00));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testTransactionHistoryFollowsCursorWithoutCounting() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            // Two rows share each timestamp so the id tie-break is exercised
+            if (i % 2 == 0) {
+                saveTransaction("TXN-SENT-" + i, TransactionType.TRANSFER, account, otherAccount, base.plusMinutes(i / 2));
+            } else {
+                saveTransaction("TXN-RECV-" + i, TransactionType.TRANSFER, otherAccount, account, base.plusMinutes(i / 2));
+            }
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Statistics statistics = resetStatistics();
+            MvcResult result = mockMvc.perform(get("/accounts/{accountNumber}/transactions", account.getAccountNumber())
+                            .param("size", "2")
+                            .param("cursor", cursor != null ? cursor : "")
+                            .header("Authorization", "Bearer " + ownerToken))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            // Account id lookup plus one seek per side, never a COUNT
+            assertEquals(3, statistics.getPrepareStatementCount());
+            seen.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$[*].txnId"));
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertEquals(List.of("TXN-SENT-4", "TXN-RECV-3", "TXN-SENT-2", "TXN-RECV-1", "TXN-SENT-0"), seen);
+    }
+
+    @Test
+    void testExportMergesSentAndReceivedNewestFirst() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        saveTransaction("TXN-OLD", TransactionType.TRANSFER, account, otherAccount, base.minusDays(1));
+        saveTransaction("TXN-1", TransactionType.TRANSFER, account, otherAccount, base);
+        saveTransaction("TXN-2", TransactionType.TRANSFER, otherAccount, account, base.plusMinutes(1));
+        saveTransaction("TXN-3", TransactionType.DEPOSIT, null, account, base.plusMinutes(2));
+
+        String body = mockMvc.perform(get("/accounts/{accountNumber}/transactions/export", account.getAccountNumber())
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> txnIds = body.lines().map(line -> JsonPath.<String>read(line, "$.txnId")).toList();
+        assertEquals(List.of("TXN-3", "TXN-2", "TXN-1"), txnIds);
+
+        mockMvc.perform(get("/accounts/{accountNumber}/transactions/export", otherAccount.getAccountNumber())
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testStatementCsvSplitsDebitsAndCredits() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        saveTransaction("TXN-1", TransactionType.TRANSFER, account, otherAccount, base);
+        saveTransaction("TXN-2", TransactionType.DEPOSIT, null, account, base.plusMinutes(1));
+
+        String csv = mockMvc.perform(get("/accounts/{accountNumber}/statement.csv", account.getAccountNumber())
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"statement-"
+                        + account.getAccountNumber() + ".csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(List.of(
+                "Date,Transaction ID,Type,Narration,Debit,Credit,Counterparty",
+                "2025-01-01T12:01,TXN-2,DEPOSIT,,,10.00,",
+                "2025-01-01T12:00,TXN-1,TRANSFER,,10.00,," + otherAccount.getAccountNumber()), csv.lines().toList());
+    }
+
+    @Test
+    void testStatementCsvChecksOwnershipBeforeWriting() throws Exception {
+        saveTransaction("TXN-1", TransactionType.TRANSFER, otherAccount, account, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        mockMvc.perform(get("/accounts/{accountNumber}/statement.csv", otherAccount.getAccountNumber())
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden())
+                .andExpect(header().doesNotExist("Content-Disposition"))
+                .andExpect(content().string(not(containsString("Transaction ID"))));
+
+        mockMvc.perform(get("/accounts/{accountNumber}/statement.csv", "999999999999999999")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("Content-Disposition"))
+                .andExpect(content().string(not(containsString("Transaction ID"))));
+    }
+
+    @Test
+    void testStatementCsvForEmptyPeriodHasHeaderOnly() throws Exception {
+        String csv = mockMvc.perform(get("/accounts/{accountNumber}/statement.csv", account.getAccountNumber())
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(List.of("Date,Transaction ID,Type,Narration,Debit,Credit,Counterparty"), csv.lines().toList());
+    }
+
+    @Test
+    void testExportOfMissingAccountIsNotFound() throws Exception {
+        mockMvc.perform(get("/accounts/{accountNumber}/transactions/export", "999999999999999999")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetAccountDetailsIssuesSingleQuery() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(get("/accounts/{accountNumber}", account.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.branchIfsc").value("TEST0000001"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testListAccountsIssuesSingleQueryWithoutCount() throws Exception {
+        accountRepository.save(newAccount("123401000000000003", owner, new BigDecimal("10.00")));
+        accountRepository.save(newAccount("123401000000000004", owner, new BigDecimal("20.00")));
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(get("/accounts")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].branchName").value("Test Branch"))
+                .andExpect(header().string("X-Has-Next", "true"))
+                .andExpect(header().doesNotExist("X-Total-Count"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testListAccountsWithTotalAddsCountQuery() throws Exception {
+        accountRepository.save(newAccount("123401000000000003", owner, new BigDecimal("10.00")));
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(get("/accounts")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .param("size", "1")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Total-Count", "2"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testListAccountsRejectsOutOfRangeSize() throws Exception {
+        String cursor = new KeysetCursor(LocalDateTime.now(), Long.MAX_VALUE).encode();
+
+        for (String size : List.of("0", "101")) {
+            mockMvc.perform(get("/accounts")
+                            .header("Authorization", "Bearer " + ownerToken)
+                            .param("size", size)
+                            .param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/accounts")
+                            .header("Authorization", "Bearer " + ownerToken)
+                            .param("size", size))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void testCreateAccountUsesGeneratedNumberWithoutCollisionCheck() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(post("/accounts")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountType\": \"CURRENT\", \"branchIfsc\": \"TEST0000001\", \"initialDeposit\": 100.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(matchesPattern("123402\\d{14}")))
+                .andExpect(jsonPath("$.overdraftLimit").value(10000));
+
+        // Branch lookup, account, activity and initial deposit INSERTs; no user or exists-by-number queries
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCreateAccountRetriesTakenNumber() throws Exception {
+        String taken = "123402" + "2501011200" + "0001";
+        accountRepository.save(newAccount(taken, otherUser, BigDecimal.ZERO));
+        doReturn(taken).doCallRealMethod().when(idGenerator).generateAccountNumber(AccountType.CURRENT);
+
+        mockMvc.perform(post("/accounts")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountType\": \"CURRENT\", \"branchIfsc\": \"TEST0000001\", \"initialDeposit\": 100.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(matchesPattern("123402\\d{14}")))
+                .andExpect(jsonPath("$.accountNumber").value(not(taken)));
+
+        assertEquals(4, accountRepository.count());
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void testDepositLoadsAccountOnce() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(post("/accounts/{accountNumber}/deposit", account.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 250.00, \"narration\": \"Test deposit\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1250.00));
+
+        // One ownership-checked SELECT, then the activity UPDATE, account UPDATE and transaction INSERT
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testRepeatedIdempotencyKeyReturnsFirstResponseWithoutPosting() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Statistics statistics = resetStatistics();
+            mockMvc.perform(post("/accounts/{accountNumber}/deposit", account.getAccountNumber())
+                            .header("Authorization", "Bearer " + ownerToken)
+                            .header("Idempotency-Key", "gateway-retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\": 250.00, \"narration\": \"Test deposit\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(1250.00));
+            if (attempt == 1) {
+                assertEquals(0, statistics.getPrepareStatementCount());
+            }
+        }
+
+        assertEquals(0, new BigDecimal("1250.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void testTransferLoadsEachAccountOnce() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        mockMvc.perform(post("/accounts/transfer")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountNumber\": \"" + account.getAccountNumber()
+                                + "\", \"toAccountNumber\": \"" + otherAccount.getAccountNumber()
+                                + "\", \"amount\": 100.00, \"narration\": \"Test transfer\"}"))
+                .andExpect(status().isOk());
+
+        // Two locking SELECTs, the source's first-debit limit seed, one INSERT, both UPDATEs in a
+        // single JDBC batch and one activity UPDATE
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("900.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("600.00").compareTo(accountRepository.findById(otherAccount.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void testBatchTransferNetsBalancesAndReportsPerItem() throws Exception {
+        String from = account.getAccountNumber();
+        String to = otherAccount.getAccountNumber();
+
+        mockMvc.perform(post("/accounts/transfers/batch")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + transferJson(from, to, "100.00") + ","
+                                + transferJson(from, to, "900.00") + ","
+                                + transferJson(from, to, "0.01") + ","
+                                + transferJson(to, from, "50.00") + ","
+                                + transferJson(from, from, "1.00") + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.results[1].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.results[2].errorCode").value("INSUFFICIENT_FUNDS"))
+                .andExpect(jsonPath("$.results[3].errorCode").value("ACCESS_DENIED"))
+                .andExpect(jsonPath("$.results[4].errorCode").value("INVALID_TRANSFER"));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("1500.00").compareTo(accountRepository.findById(otherAccount.getId()).orElseThrow().getBalance()));
+        assertEquals(2, transactionRepository.count());
+    }
+
+    @Test
+    void testBatchTransferAcceptsNdjson() throws Exception {
+        String from = account.getAccountNumber();
+        String to = otherAccount.getAccountNumber();
+
+        mockMvc.perform(post("/accounts/transfers/batch")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType("application/x-ndjson")
+                        .content(transferJson(from, to, "10.00") + "\n" + transferJson(from, to, "15.00") + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.results[1].txnId").isNotEmpty());
+
+        assertEquals(0, new BigDecimal("975.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void testBatchTransferOverMaxBatchSizeIsRejected() throws Exception {
+        String from = account.getAccountNumber();
+        String to = otherAccount.getAccountNumber();
+        List<String> items = Collections.nCopies(6, transferJson(from, to, "1.00"));
+
+        mockMvc.perform(post("/accounts/transfers/batch")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", items) + "]"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/accounts/transfers/batch")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType("application/x-ndjson")
+                        .content(String.join("\n", items)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, transactionRepository.count());
+    }
+
+    @Test
+    void testOtherUsersAccountIsForbidden() throws Exception {
+        mockMvc.perform(get("/accounts/{accountNumber}/balance", otherAccount.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/accounts/{accountNumber}/deposit", otherAccount.getAccountNumber())
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 250.00}"))
+                .andExpect(status().isForbidden());
+
+        assertTrue(accountRepository.findById(otherAccount.getId()).orElseThrow()
+                .getBalance().compareTo(new BigDecimal("500.00")) == 0);
+    }
+
+    private static String transferJson(String from, String to, String amount) {
+        return "{\"fromAccountNumber\": \"" + from + "\", \"toAccountNumber\": \"" + to
+                + "\", \"amount\": " + amount + "}";
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private User newUser(String email, String mobile) {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setMobile(mobile);
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setPasswordHash(PasswordUtil.encode("Test@123"));
+        user.setRole("ROLE_USER");
+        user.setAddress(new Address("123 Test St", "Test City", "TS", "12345", "USA"));
+        return user;
+    }
+
+    private void saveTransaction(String txnId, TransactionType type, Account from, Account to, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction(txnId, type, BigDecimal.TEN, from, to, null);
+        transaction.setTimestamp(timestamp);
+        transaction.setBalanceAfter(BigDecimal.ZERO);
+        transactionRepository.save(transaction);
+    }
+
+    private Account newAccount(String accountNumber, User user, BigDecimal balance) {
+        Account newAccount = new Account(accountNumber, AccountType.SAVINGS, user, branch);
+        newAccount.setBalance(balance);
+        return newAccount;
+    }
+}
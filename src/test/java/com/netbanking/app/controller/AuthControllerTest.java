@@ -5,13 +5,16 @@ import com.banking.core.entity.User;
 import com.banking.core.repository.UserRepository;
 import com.banking.core.util.PasswordUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.netbanking.app.dto.LoginRequest;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -19,6 +22,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +46,9 @@ class AuthControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
 
     @BeforeEach
@@ -118,4 +127,68 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testRefreshRotatesAndReuseRevokesTheFamily() throws Exception {
+        JsonNode login = login();
+        String accessToken = login.get("accessToken").asText();
+        String refreshToken = login.get("refreshToken").asText();
+
+        // Access tokens never refresh
+        mockMvc.perform(post("/auth/refresh").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+
+        MvcResult refreshed = mockMvc.perform(post("/auth/refresh").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userEmail").value("test@bank.com"))
+                .andReturn();
+        String rotatedRefreshToken = objectMapper.readTree(refreshed.getResponse().getContentAsString())
+                .get("refreshToken").asText();
+
+        // Replaying the first refresh token revokes the family, including the token that replaced it
+        mockMvc.perform(post("/auth/refresh").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/auth/refresh").header("Authorization", "Bearer " + rotatedRefreshToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogoutRevokesTokens() throws Exception {
+        JsonNode login = login();
+        String accessToken = login.get("accessToken").asText();
+
+        mockMvc.perform(get("/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/accounts").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/refresh").header("Authorization", "Bearer " + login.get("refreshToken").asText()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testLoginRehashesPasswordMadeAtAnotherCost() throws Exception {
+        testUser.setPasswordHash(new BCryptPasswordEncoder(4).encode("Test@123"));
+        userRepository.saveAndFlush(testUser);
+
+        login();
+
+        entityManager.clear();
+        String rehashed = userRepository.findById(testUser.getId()).orElseThrow().getPasswordHash();
+        assertFalse(rehashed.startsWith("$2a$04$"));
+        assertTrue(PasswordUtil.matches("Test@123", rehashed));
+    }
+
+    private JsonNode login() throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("test@bank.com", "Test@123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
 }
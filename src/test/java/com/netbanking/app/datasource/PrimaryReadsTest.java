@@ -0,0 +1,119 @@
+package com.netbanking.app.datasource;
+
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.entity.RefreshTokenFamily;
+import com.netbanking.app.journal.JournalEntry;
+import com.netbanking.app.journal.LedgerJournal;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.RefreshTokenFamilyRepository;
+import com.netbanking.app.repository.TransactionBatchWriter;
+import com.netbanking.app.repository.TransactionBatchWriter.LedgerRow;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import com.netbanking.app.security.RevokedTokenFamilies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Readers that must see the primary, run with the replica route enabled.
+ *
+ * The replica is an empty in-memory database: the schema is only created on
+ * the primary, so a query routed to the replica fails instead of returning
+ * stale rows.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routed-primary",
+        "banking.datasource.replica.enabled=true",
+        "banking.datasource.replica.jdbc-url=jdbc:h2:mem:routed-replica",
+        "banking.datasource.replica.username=sa"
+})
+@ActiveProfiles("test")
+class PrimaryReadsTest {
+
+    @Autowired
+    private RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+
+    @Autowired
+    private RevokedTokenFamilies revokedTokenFamilies;
+
+    @Autowired
+    private TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    private AccountQueryRepository accountQueryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDirectory;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenFamilyRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testReadOnlyRepositoryMethodsUseReplica() {
+        assertThrows(DataAccessException.class, () -> refreshTokenFamilyRepository.count());
+    }
+
+    @Test
+    void testIdempotencyReferenceIsCheckedOnPrimary() {
+        assertFalse(transactionQueryRepository.existsByReferenceNumber("IK-unknown"));
+    }
+
+    @Test
+    void testJournalRecoverySettlesAgainstPrimary() throws Exception {
+        LedgerJournal crashed = journal();
+        LedgerRow row = new LedgerRow("TXN-ROUTED", TransactionType.DEPOSIT, BigDecimal.TEN, "USD", null, 999L,
+                LocalDateTime.now(), null, BigDecimal.TEN, null);
+        crashed.append(new JournalEntry(row, 999L, 1L));
+
+        // No marker: recovery looks the account up, finds none and drops the entry
+        LedgerJournal recovered = journal();
+        assertEquals(0, recovered.backlog());
+        recovered.close();
+    }
+
+    @Test
+    void testRevokedFamiliesAreReadFromPrimary() {
+        // Revoked on another node, so only the database knows
+        LocalDateTime now = LocalDateTime.now();
+        RefreshTokenFamily family = refreshTokenFamilyRepository.save(
+                new RefreshTokenFamily(1L, now, now.plusHours(1)));
+        refreshTokenFamilyRepository.revoke(family.getId(), now);
+
+        assertEquals(List.of(family.getId()), refreshTokenFamilyRepository.findIdsRevokedSince(now.minusMinutes(1)));
+        revokedTokenFamilies.refresh();
+        assertTrue(revokedTokenFamilies.isRevoked(family.getId()));
+        revokedTokenFamilies.rebuild();
+        assertTrue(revokedTokenFamilies.isRevoked(family.getId()));
+    }
+
+    private LedgerJournal journal() throws Exception {
+        LedgerJournal journal = new LedgerJournal(journalDirectory, DataSize.ofKilobytes(64), 1000,
+                transactionBatchWriter, accountQueryRepository, transactionManager);
+        journal.open();
+        return journal;
+    }
+}
@@ -0,0 +1,104 @@
+package com.netbanking.app.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica; each
+ * holds a row naming itself, so a query shows where it was routed.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing-primary");
+        DataSource replica = database("routing-replica");
+        RecentWriters recentWriters = new RecentWriters(Duration.ofSeconds(5), 100, nanos::get);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, recentWriters));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        assertEquals("replica", reads.execute(status -> source()));
+        assertEquals("primary", writes.execute(status -> source()));
+    }
+
+    @Test
+    void testWriterReadsPrimaryUntilWindowPasses() {
+        signIn("alice");
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = touched + 1"));
+
+        assertEquals("primary", reads.execute(status -> source()));
+        signIn("bob");
+        assertEquals("replica", reads.execute(status -> source()));
+
+        signIn("alice");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals("replica", reads.execute(status -> source()));
+    }
+
+    @Test
+    void testRolledBackWriteAndForcedPrimary() {
+        signIn("alice");
+        writes.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE marker SET touched = touched + 1");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", reads.execute(status -> source()));
+
+        assertEquals("primary", reads.execute(status -> ReadWriteRoutingDataSource.onPrimary(this::source)));
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static void signIn(String name) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(name, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("DROP TABLE IF EXISTS marker");
+        setup.execute("CREATE TABLE marker (name VARCHAR(16), touched INT)");
+        setup.update("INSERT INTO marker VALUES (?, 0)", name.substring("routing-".length()));
+        return dataSource;
+    }
+}
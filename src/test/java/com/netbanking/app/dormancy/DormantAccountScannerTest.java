@@ -0,0 +1,140 @@
+package com.netbanking.app.dormancy;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.TransactionRepository;
+import com.banking.core.repository.UserRepository;
+import com.netbanking.app.entity.AccountActivity;
+import com.netbanking.app.repository.AccountActivityRepository;
+import com.netbanking.app.service.AccountOperationsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Last-activity tracking on postings, and the batched dormancy scan over it
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DormantAccountScannerTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusYears(2);
+
+    @Autowired
+    private AccountOperationsService accountOperationsService;
+
+    @Autowired
+    private AccountActivityRepository accountActivityRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final List<Account> accounts = new ArrayList<>();
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        Address address = new Address("1 Bank St", "Test City", "TS", "12345", "USA");
+        Branch branch = branchRepository.save(new Branch("Test Branch", "TEST0000001", address));
+
+        User user = new User();
+        user.setFirstName("Idle");
+        user.setLastName("Owner");
+        user.setEmail("idle@bank.com");
+        user.setMobile("+1-555-0177");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setPasswordHash("unused");
+        user.setRole("ROLE_USER");
+        user.setAddress(address);
+        userRepository.save(user);
+        this.owner = user;
+
+        // Saved directly, so the tracker has not seen them yet
+        for (int i = 0; i < 5; i++) {
+            Account account = new Account("12340100000000020" + i, AccountType.SAVINGS, user, branch);
+            account.setBalance(new BigDecimal("100.00"));
+            accounts.add(accountRepository.save(account));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountActivityRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        branchRepository.deleteAll();
+    }
+
+    @Test
+    void testScanPagesThroughIdleActiveAccountsOldestFirst() {
+        for (int i = 0; i < accounts.size(); i++) {
+            accountActivityRepository.save(new AccountActivity(accounts.get(i).getId(), LONG_AGO.plusDays(i)));
+        }
+        // Posted to since, so no longer idle
+        accountOperationsService.deposit(accounts.get(1).getAccountNumber(), null, BigDecimal.TEN, "wake up", null);
+        // Idle but closed, so not reported
+        Account closed = accountRepository.findById(accounts.get(3).getId()).orElseThrow();
+        closed.setStatus(Status.CLOSED);
+        accountRepository.save(closed);
+
+        DormantAccountScanner scanner = new DormantAccountScanner(accountActivityRepository, eventPublisher,
+                Duration.ofDays(365), 2);
+        List<String> dormant = scanner.scan(LocalDateTime.now().minusDays(365))
+                .map(DormantAccount::accountNumber)
+                .toList();
+
+        assertEquals(List.of(accounts.get(0).getAccountNumber(), accounts.get(2).getAccountNumber(),
+                accounts.get(4).getAccountNumber()), dormant);
+    }
+
+    @Test
+    void testAccountsAreTrackedFromOpening() {
+        Account opened = accountOperationsService.createAccount(owner.getId(), AccountType.CURRENT, "TEST0000001",
+                new BigDecimal("50.00"));
+        assertTrue(accountActivityRepository.existsById(opened.getId()));
+        for (Account account : accounts) {
+            assertTrue(accountActivityRepository.findById(account.getId()).isEmpty());
+        }
+
+        // The sweep picks up the accounts saved around the services
+        new DormantAccountScanner(accountActivityRepository, eventPublisher, Duration.ofDays(365), 2).sweep();
+
+        for (Account account : accounts) {
+            AccountActivity activity = accountActivityRepository.findById(account.getId()).orElseThrow();
+            assertTrue(activity.getLastActivityAt().isAfter(LocalDateTime.now().minusDays(1)));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.netbanking.app.idempotency;
+
+import com.netbanking.app.journal.LedgerJournal;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IdempotentRequestsTest {
+
+    private final TransactionQueryRepository repository = mock(TransactionQueryRepository.class);
+    private final IdempotentRequests requests = new IdempotentRequests(repository, (LedgerJournal) null, new SimpleMeterRegistry(),
+            Duration.ofHours(1), 100);
+    private final AtomicInteger postings = new AtomicInteger();
+
+    @Test
+    void testRepeatedKeyReturnsFirstResponseFromMemory() {
+        assertEquals("posted 1", requests.execute("deposit", "7", "key-1", this::post, () -> "replayed"));
+        assertEquals("posted 1", requests.execute("deposit", "7", "key-1", this::post, () -> "replayed"));
+
+        // Scoped per endpoint and per user
+        assertEquals("posted 2", requests.execute("withdraw", "7", "key-1", this::post, () -> "replayed"));
+        assertEquals("posted 3", requests.execute("deposit", "8", "key-1", this::post, () -> "replayed"));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testKeyRecordedElsewhereIsReplayedAfterReferenceConflict() {
+        String reference = IdempotentRequests.reference("deposit", "7", "key-2");
+        when(repository.existsByReferenceNumber(reference)).thenReturn(true);
+
+        String response = requests.execute("deposit", "7", "key-2", ref -> {
+            throw new DataIntegrityViolationException("uk_transaction_reference_number");
+        }, () -> "replayed");
+
+        assertEquals("replayed", response);
+        assertEquals("replayed", requests.execute("deposit", "7", "key-2", this::post, () -> "again"));
+    }
+
+    @Test
+    void testFailedPostingIsForgottenAndInFlightKeyConflicts() {
+        assertThrows(IllegalStateException.class, () -> requests.execute("deposit", "7", "key-3", ref -> {
+            throw new IllegalStateException("insufficient funds");
+        }, () -> "replayed"));
+        assertEquals("posted 1", requests.execute("deposit", "7", "key-3", this::post, () -> "replayed"));
+
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, () ->
+                requests.execute("transfer", "7", "key-4",
+                        ref -> requests.execute("transfer", "7", "key-4", this::post, () -> "replayed"),
+                        () -> "replayed"));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+    }
+
+    private String post(String reference) {
+        return "posted " + postings.incrementAndGet();
+    }
+}
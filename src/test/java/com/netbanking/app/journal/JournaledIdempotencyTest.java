@@ -0,0 +1,148 @@
+package com.netbanking.app.journal;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.Transaction;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.TransactionRepository;
+import com.banking.core.repository.UserRepository;
+import com.banking.core.util.PasswordUtil;
+import com.netbanking.app.idempotency.IdempotentRequests;
+import com.netbanking.app.security.UserDetailsServiceImpl;
+import com.netbanking.app.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key retries with the ledger journal enabled, where a posting's
+ * row reaches the transactions table only when the journal drains
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journaled",
+        "banking.journal.enabled=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JournaledIdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private LedgerJournal ledgerJournal;
+
+    private Account account;
+    private String token;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("journal").toString();
+        registry.add("banking.journal.directory", () -> directory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Address address = new Address("1 Bank St", "Test City", "TS", "12345", "USA");
+        Branch branch = branchRepository.save(new Branch("Test Branch", "TEST0000001", address));
+
+        User owner = new User();
+        owner.setFirstName("Test");
+        owner.setLastName("User");
+        owner.setEmail("journal@bank.com");
+        owner.setMobile("+1-555-0301");
+        owner.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        owner.setPasswordHash(PasswordUtil.encode("Test@123"));
+        owner.setRole("ROLE_USER");
+        owner.setAddress(address);
+        owner = userRepository.save(owner);
+
+        account = new Account("123401000000000001", AccountType.SAVINGS, owner, branch);
+        account.setBalance(new BigDecimal("1000.00"));
+        account = accountRepository.save(account);
+        token = jwtUtil.generateToken(UserDetailsServiceImpl.UserPrincipal.create(owner));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerJournal.drain();
+        idempotentRequests.evictAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        branchRepository.deleteAll();
+    }
+
+    @Test
+    void testRetryAfterKeyIsForgottenIsReplayedFromJournalAndTable() throws Exception {
+        deposit();
+
+        // Not drained yet: the journal still holds the reference
+        idempotentRequests.evictAll();
+        deposit();
+
+        // Drained: the transactions table has it
+        ledgerJournal.drain();
+        idempotentRequests.evictAll();
+        deposit();
+
+        ledgerJournal.drain();
+        assertEquals(0, new BigDecimal("1250.00").compareTo(
+                accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+        List<Transaction> transactions = transactionRepository.findAll();
+        assertEquals(1, transactions.size());
+        assertTrue(transactions.get(0).getReferenceNumber().startsWith("IK-"));
+    }
+
+    private void deposit() throws Exception {
+        mockMvc.perform(post("/accounts/{accountNumber}/deposit", account.getAccountNumber())
+                        .header("Authorization", "Bearer " + token)
+                        .header(IdempotentRequests.HEADER, "gateway-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 250.00, \"narration\": \"Test deposit\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1250.00));
+    }
+}
@@ -0,0 +1,227 @@
+package com.netbanking.app.journal;
+
+import com.banking.core.entity.Account;
+import com.banking.core.enums.TransactionType;
+import com.netbanking.app.repository.AccountQueryRepository;
+import com.netbanking.app.repository.TransactionBatchWriter;
+import com.netbanking.app.repository.TransactionBatchWriter.LedgerRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for LedgerJournal
+ */
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionBatchWriter writer;
+    private AccountQueryRepository accountQueryRepository;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(TransactionBatchWriter.class);
+        accountQueryRepository = mock(AccountQueryRepository.class);
+        when(writer.findExistingTxnIds(anyCollection())).thenReturn(Set.of());
+    }
+
+    @Test
+    void testDrainInsertsCommittedAndDropsAborted() throws Exception {
+        LedgerJournal journal = open();
+        journal.append(entry("TXN1", 1L, 1L, "100.00"));
+        journal.append(entry("TXN2", 1L, 2L, "50.00"));
+        journal.append(entry("TXN3", 1L, 3L, "25.00"));
+        journal.resolve("TXN1", true);
+        journal.resolve("TXN2", false);
+
+        journal.drain();
+
+        assertEquals(List.of("TXN1"), insertedTxnIds());
+        assertEquals(1, journal.backlog());
+        journal.close();
+    }
+
+    @Test
+    void testReopenReplaysUndrainedEntries() throws Exception {
+        LedgerJournal crashed = open();
+        crashed.append(entry("TXN1", 1L, 1L, "100.00"));
+        crashed.append(entry("TXN2", 1L, 2L, "50.00"));
+        crashed.resolve("TXN1", true);
+        crashed.resolve("TXN2", true);
+        when(writer.findExistingTxnIds(anyCollection())).thenReturn(Set.of("TXN1"));
+
+        open();
+
+        assertEquals(List.of("TXN2"), insertedTxnIds());
+    }
+
+    @Test
+    void testReopenSettlesEntriesWithoutOutcomeAgainstAccountVersion() throws Exception {
+        LedgerJournal crashed = open();
+        crashed.append(entry("COMMITTED", 1L, 5L, "100.00"));
+        crashed.append(entry("ROLLEDBACK", 2L, 5L, "100.00"));
+        crashed.append(entry("UNKNOWN", 3L, 5L, "100.00"));
+        Account atVersion = account(5L, "100.00");
+        Account behind = account(4L, "50.00");
+        Account moved = account(6L, "75.00");
+        when(accountQueryRepository.findById(1L)).thenReturn(Optional.of(atVersion));
+        when(accountQueryRepository.findById(2L)).thenReturn(Optional.of(behind));
+        when(accountQueryRepository.findById(3L)).thenReturn(Optional.of(moved));
+
+        open();
+
+        assertEquals(List.of("COMMITTED"), insertedTxnIds());
+        assertTrue(Files.readString(directory.resolve("in-doubt.log")).startsWith("UNKNOWN,"));
+    }
+
+    @Test
+    void testDrainedEntriesAreNotReplayed() throws Exception {
+        LedgerJournal journal = open();
+        journal.append(entry("TXN1", 1L, 1L, "100.00"));
+        journal.resolve("TXN1", true);
+        journal.drain();
+        journal.close();
+
+        writer = mock(TransactionBatchWriter.class);
+        open();
+
+        verify(writer, never()).insert(anyList());
+    }
+
+    @Test
+    void testDrainQuarantinesRowWhoseReferenceIsAlreadyRecorded() throws Exception {
+        LedgerJournal journal = open();
+        journal.append(entry("TXN1", 1L, 1L, "100.00", "IK-1"));
+        journal.append(entry("TXN2", 1L, 2L, "50.00", "IK-2"));
+        journal.resolve("TXN1", true);
+        journal.resolve("TXN2", true);
+        assertTrue(journal.holdsReference("IK-1"));
+        doThrow(new DuplicateKeyException("uk_transaction_reference_number")).doNothing()
+                .when(writer).insert(anyList());
+        when(writer.findExistingReferences(anyCollection())).thenReturn(Set.of("IK-1"));
+
+        journal.drain();
+
+        assertEquals(List.of("TXN2"), lastInsertedTxnIds());
+        assertEquals(0, journal.backlog());
+        assertFalse(journal.holdsReference("IK-1"));
+        assertTrue(Files.readString(directory.resolve("in-doubt.log")).startsWith("TXN1,"));
+        journal.close();
+    }
+
+    @Test
+    void testRollsOverToNewSegment() throws Exception {
+        LedgerJournal journal = new LedgerJournal(directory, 1024, 1000, writer, accountQueryRepository,
+                TransactionOperations.withoutTransaction());
+        journal.open();
+        for (int i = 0; i < 50; i++) {
+            journal.append(entry("TXN" + i, 1L, i, "1.00"));
+            journal.resolve("TXN" + i, true);
+        }
+        journal.drain();
+
+        assertEquals(50, insertedTxnIds().size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.toString().endsWith(".journal")).count());
+        }
+        journal.close();
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllReplayed() throws Exception {
+        LedgerJournal crashed = new LedgerJournal(directory, 4096, 1000, writer, accountQueryRepository,
+                TransactionOperations.withoutTransaction());
+        crashed.open();
+        int threads = 8;
+        int perThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String txnId = "TXN" + thread + "-" + i;
+                    crashed.append(entry(txnId, 1L, i, "1.00"));
+                    crashed.resolve(txnId, true);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        open();
+
+        assertEquals(threads * perThread, Set.copyOf(insertedTxnIds()).size());
+    }
+
+    private LedgerJournal open() throws Exception {
+        LedgerJournal journal = new LedgerJournal(directory, 64 * 1024, 1000, writer, accountQueryRepository,
+                TransactionOperations.withoutTransaction());
+        journal.open();
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> insertedTxnIds() {
+        ArgumentCaptor<List<LedgerRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(writer, atLeastOnce()).insert(rows.capture());
+        return rows.getAllValues().stream().flatMap(List::stream).map(LedgerRow::txnId).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> lastInsertedTxnIds() {
+        ArgumentCaptor<List<LedgerRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(writer, atLeastOnce()).insert(rows.capture());
+        return rows.getValue().stream().map(LedgerRow::txnId).toList();
+    }
+
+    private static JournalEntry entry(String txnId, long accountId, long version, String balanceAfter) {
+        return entry(txnId, accountId, version, balanceAfter, null);
+    }
+
+    private static JournalEntry entry(String txnId, long accountId, long version, String balanceAfter,
+                                      String reference) {
+        LedgerRow row = new LedgerRow(txnId, TransactionType.DEPOSIT, new BigDecimal("10.00"), "USD", null,
+                accountId, LocalDateTime.of(2025, 1, 1, 12, 0), "test", new BigDecimal(balanceAfter), reference);
+        return new JournalEntry(row, accountId, version);
+    }
+
+    private static Account account(long version, String balance) {
+        Account account = mock(Account.class);
+        when(account.getVersion()).thenReturn(version);
+        when(account.getBalance()).thenReturn(new BigDecimal(balance));
+        return account;
+    }
+}
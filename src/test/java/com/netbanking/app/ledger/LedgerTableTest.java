@@ -0,0 +1,56 @@
+package com.netbanking.app.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LedgerTable and MinorUnits
+ */
+class LedgerTableTest {
+
+    @Test
+    void testPostsWithinBalancePlusOverdraft() {
+        LedgerTable table = new LedgerTable(2);
+        table.load(7, 10_000, 5_000);
+        table.load(8, 0, 0);
+
+        assertTrue(table.canDebit(7, 15_000));
+        assertFalse(table.canDebit(7, 15_001));
+        assertEquals(-2_500, table.debit(7, 12_500));
+        assertEquals(12_500, table.credit(8, 12_500));
+        assertEquals(2_500, table.available(7));
+        assertThrows(IllegalArgumentException.class, () -> table.debit(7, 2_501));
+        assertEquals(-2_500, table.balance(7));
+    }
+
+    @Test
+    void testHoldsExactlyItsCapacity() {
+        LedgerTable table = new LedgerTable(3);
+        for (long id = 1; id <= 3; id++) {
+            table.load(id, id * 100, 0);
+        }
+        table.load(2, 50, 0);
+
+        assertEquals(3, table.size());
+        assertEquals(50, table.balance(2));
+        assertFalse(table.contains(4));
+        assertThrows(IllegalStateException.class, () -> table.load(4, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.balance(4));
+    }
+
+    @Test
+    void testConvertsMinorUnitsExactly() {
+        assertEquals(1_234_567, MinorUnits.toMinor(new BigDecimal("12345.67")));
+        assertEquals(1_000, MinorUnits.toMinor(new BigDecimal("10")));
+        assertEquals(new BigDecimal("12345.67"), MinorUnits.toDecimal(1_234_567));
+
+        assertTrue(MinorUnits.isExact(new BigDecimal("0.010")));
+        assertFalse(MinorUnits.isExact(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinor(new BigDecimal("0.005")));
+        assertFalse(MinorUnits.isExact(new BigDecimal("1E17")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinor(new BigDecimal("1E17")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.netbanking.app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void testUpgradesCheaperHashesAndDowngradesOnlyFarDearerOnes() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.calibrated(Duration.ZERO, 4, 6).getCost());
+        assertEquals(6, AdaptiveBCryptPasswordEncoder.calibrated(Duration.ofHours(1), 4, 6).getCost());
+    }
+
+    @Test
+    void testReadsCostFromStoredHash() {
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.costOf(hash));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("{noop}secret"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.netbanking.app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BestEffortPasswordUpgradeTest {
+
+    @Test
+    void testFailedRehashDoesNotFailSignIn() {
+        UserDetails user = User.withUsername("test@bank.com")
+                .password(new BCryptPasswordEncoder(4).encode("Test@123"))
+                .roles("USER")
+                .build();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(new AdaptiveBCryptPasswordEncoder(5));
+        provider.setUserDetailsService(username -> user);
+        provider.setUserDetailsPasswordService(new BestEffortPasswordUpgrade((details, newPassword) -> {
+            throw new RejectedExecutionException("busy");
+        }));
+
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("test@bank.com", "Test@123"));
+
+        assertTrue(authentication.isAuthenticated());
+    }
+}
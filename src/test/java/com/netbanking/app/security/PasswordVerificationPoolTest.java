@@ -0,0 +1,109 @@
+package com.netbanking.app.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordVerificationPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordVerificationPool pool;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pool.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testRejectsImmediatelyWhenQueueIsFull() throws Exception {
+        pool = new PasswordVerificationPool(1, 1, Duration.ofMinutes(1), meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> pool.run(() -> {
+            running.countDown();
+            return await(release);
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> pool.run(() -> true), callers);
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> pool.run(() -> true));
+        assertEquals(1, meterRegistry.get("banking.login.verification.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectsWorkThatQueuedTooLong() throws Exception {
+        pool = new PasswordVerificationPool(1, 1, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> pool.run(() -> {
+            running.countDown();
+            return await(release);
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> pool.run(() -> true), callers);
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        Thread.sleep(100);
+        release.countDown();
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+        Exception e = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(2, meterRegistry.get("banking.login.verification.queue").timer().count());
+    }
+
+    @Test
+    void testEncodeRunsOutsideTheSaturatedPool() throws Exception {
+        pool = new PasswordVerificationPool(1, 1, Duration.ofMinutes(1), meterRegistry);
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(new AdaptiveBCryptPasswordEncoder(4), pool);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> pool.run(() -> {
+            running.countDown();
+            return await(release);
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> pool.run(() -> true), callers);
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        String hash = encoder.encode("Secret@123");
+        assertThrows(RejectedExecutionException.class, () -> encoder.matches("Secret@123", hash));
+
+        release.countDown();
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertTrue(encoder.matches("Secret@123", hash));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.netbanking.app.security;
+
+import com.banking.core.entity.Address;
+import com.banking.core.entity.User;
+import com.banking.core.enums.Status;
+import com.banking.core.repository.UserRepository;
+import com.banking.core.util.PasswordUtil;
+import com.netbanking.app.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The principal cache in front of the JWT filter's user lookup, and its
+ * eviction by PrincipalCacheInvalidationListener once a user change commits.
+ *
+ * Not @Transactional: the listener only reacts to committed changes.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:principals")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PrincipalCacheInvalidationTest {
+
+    private static final String EMAIL = "cached@bank.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @SpyBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail(EMAIL);
+        user.setMobile("+1-555-0401");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setPasswordHash(PasswordUtil.encode("Test@123"));
+        user.setRole("ROLE_USER");
+        user.setAddress(new Address("123 Test St", "Test City", "TS", "12345", "USA"));
+        user = userRepository.save(user);
+        token = jwtUtil.generateToken(UserDetailsServiceImpl.UserPrincipal.create(user));
+        principalCache.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        principalCache.evictAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSecondRequestIsServedFromCache() throws Exception {
+        listAccounts();
+        listAccounts();
+
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testCommittedRoleAndStatusChangesAreReloaded() throws Exception {
+        listAccounts();
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setRole("ROLE_ADMIN");
+        userRepository.save(changed);
+        assertNull(principalCache.get(EMAIL));
+
+        listAccounts();
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+        assertTrue(principalCache.get(EMAIL).getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setStatus(Status.SUSPENDED);
+        userRepository.save(changed);
+        assertNull(principalCache.get(EMAIL));
+
+        mockMvc.perform(get("/accounts").header("Authorization", "Bearer " + token));
+        verify(userDetailsService, times(3)).loadUserByUsername(EMAIL);
+        UserDetails reloaded = principalCache.get(EMAIL);
+        assertNotNull(reloaded);
+        assertFalse(reloaded.isEnabled());
+    }
+
+    @Test
+    void testEmailChangeEvictsEntryUnderOldEmail() throws Exception {
+        listAccounts();
+        assertNotNull(principalCache.get(EMAIL));
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setEmail("renamed@bank.com");
+        userRepository.save(changed);
+
+        assertNull(principalCache.get(EMAIL));
+    }
+
+    private void listAccounts() throws Exception {
+        mockMvc.perform(get("/accounts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,62 @@
+package com.netbanking.app.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for PrincipalCache expiry, on a manual ticker
+ */
+class PrincipalCacheTest {
+
+    private static final String EMAIL = "owner@bank.com";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final PrincipalCache cache = new PrincipalCache(true, 100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry(), nanos::get);
+
+    @Test
+    void testEntryExpiresWithItsToken() {
+        cache.put(EMAIL, principal(), new Date(System.currentTimeMillis() + 60_000));
+
+        advanceSeconds(59);
+        assertNotNull(cache.get(EMAIL));
+        advanceSeconds(2);
+        assertNull(cache.get(EMAIL));
+    }
+
+    @Test
+    void testTtlCapsLongLivedToken() {
+        cache.put(EMAIL, principal(), new Date(System.currentTimeMillis() + 3_600_000));
+
+        advanceSeconds(299);
+        assertNotNull(cache.get(EMAIL));
+        advanceSeconds(2);
+        assertNull(cache.get(EMAIL));
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        cache.put(EMAIL, principal(), new Date(System.currentTimeMillis() - 1_000));
+
+        assertNull(cache.get(EMAIL));
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static UserDetailsServiceImpl.UserPrincipal principal() {
+        return new UserDetailsServiceImpl.UserPrincipal(1L, EMAIL, "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), true);
+    }
+}
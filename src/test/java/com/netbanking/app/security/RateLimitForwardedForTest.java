@@ -0,0 +1,49 @@
+package com.netbanking.app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Login rate limiting through a real connector, so Tomcat's RemoteIpValve
+ * resolves the client from X-Forwarded-For (loopback is a trusted proxy)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:forwarded",
+        "banking.security.rate-limit.login-requests-per-minute=2"
+})
+@ActiveProfiles("test")
+class RateLimitForwardedForTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testForwardedClientsGetSeparateLoginBuckets() throws Exception {
+        assertEquals(400, login("203.0.113.10"));
+        assertEquals(400, login("203.0.113.10"));
+        assertEquals(429, login("203.0.113.10"));
+
+        assertEquals(400, login("203.0.113.20"));
+    }
+
+    private int login(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\": \"nobody@bank.com\", \"password\": \"Wrong@123\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,41 @@
+package com.netbanking.app.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RevokedFamilyIndex
+ */
+class RevokedFamilyIndexTest {
+
+    @Test
+    void testContainsExactlyTheAddedIds() {
+        RevokedFamilyIndex index = new RevokedFamilyIndex(1000);
+        for (long id = 1; id <= 2000; id += 2) {
+            assertTrue(index.add(id));
+        }
+
+        // The table behind the filter rules out every false positive
+        for (long id = 1; id <= 2000; id++) {
+            assertEquals(id % 2 == 1, index.contains(id), "id " + id);
+        }
+        assertEquals(1000, index.size());
+    }
+
+    @Test
+    void testFullIndexRefusesNewIdsUntilGrown() {
+        RevokedFamilyIndex index = new RevokedFamilyIndex(2);
+        assertTrue(index.add(7));
+        assertTrue(index.add(8));
+        assertTrue(index.add(7), "re-adding a present id needs no room");
+        assertFalse(index.add(9));
+
+        RevokedFamilyIndex grown = index.grow();
+        assertTrue(grown.add(9));
+        assertTrue(grown.contains(7));
+        assertTrue(grown.contains(8));
+        assertTrue(grown.contains(9));
+        assertFalse(index.contains(9));
+    }
+}
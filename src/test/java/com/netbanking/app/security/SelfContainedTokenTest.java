@@ -0,0 +1,165 @@
+package com.netbanking.app.security;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.enums.Status;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.UserRepository;
+import com.banking.core.util.PasswordUtil;
+import com.netbanking.app.cache.BalanceCache;
+import com.netbanking.app.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Self-contained access tokens: the JWT filter builds the principal from the
+ * token's claims and consults only UserRevocationRegistry, never the users
+ * table.
+ *
+ * Not @Transactional: status changes reach the registry on commit.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:selfcontained")
+@TestPropertySource(properties = "jwt.self-contained=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SelfContainedTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private UserRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+    private Account account;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Address address = new Address("1 Bank St", "Test City", "TS", "12345", "USA");
+        Branch branch = branchRepository.save(new Branch("Test Branch", "TEST0000001", address));
+
+        user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail("claims@bank.com");
+        user.setMobile("+1-555-0501");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setPasswordHash(PasswordUtil.encode("Test@123"));
+        user.setRole("ROLE_USER");
+        user.setAddress(address);
+        user = userRepository.save(user);
+
+        account = new Account("123401000000000001", AccountType.SAVINGS, user, branch);
+        account.setBalance(new BigDecimal("1000.00"));
+        account = accountRepository.save(account);
+        token = jwtUtil.generateToken(UserDetailsServiceImpl.UserPrincipal.create(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceCache.evictAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        branchRepository.deleteAll();
+        revocationRegistry.refresh();
+    }
+
+    @Test
+    void testTokenIsTrustedWithoutUserQuery() throws Exception {
+        Statistics statistics = resetStatistics();
+
+        getBalance().andExpect(status().isOk()).andExpect(content().string("1000.00"));
+
+        // Only the balance read; the principal came from the token's claims
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void testUserDeactivatedOnThisNodeIsRejectedOnNextRequest() throws Exception {
+        getBalance().andExpect(status().isOk());
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setStatus(Status.SUSPENDED);
+        userRepository.save(changed);
+
+        getBalance().andExpect(status().isUnauthorized());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void testUserDeactivatedElsewhereIsRejectedAfterRefresh() throws Exception {
+        // A direct update stands in for another node: no commit event reaches this one
+        jdbcTemplate.update("UPDATE users SET status = 'BLOCKED' WHERE id = ?", user.getId());
+        getBalance().andExpect(status().isOk());
+
+        revocationRegistry.refresh();
+
+        getBalance().andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions getBalance() throws Exception {
+        return mockMvc.perform(get("/accounts/{accountNumber}/balance", account.getAccountNumber())
+                .header("Authorization", "Bearer " + token));
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,54 @@
+package com.netbanking.app.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void testAllowsBurstUpToCapacityThenReportsWait() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, clock::get);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, limiter.tryAcquire("alice"));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("alice"));
+
+        // Other keys have their own bucket
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void testRefillsAtConfiguredRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, clock::get);
+        for (int i = 0; i < 60; i++) {
+            limiter.tryAcquire("alice");
+        }
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2500));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void testEvictsOnlyRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, clock::get);
+        limiter.tryAcquire("idle");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+
+        limiter.evictIdle();
+
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.netbanking.app.security;
+
+import com.banking.core.enums.Status;
+import com.netbanking.app.repository.UserQueryRepository;
+import com.netbanking.app.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserRevocationRegistryTest {
+
+    private UserQueryRepository userQueryRepository;
+    private UserRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userQueryRepository = mock(UserQueryRepository.class);
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.isSelfContained()).thenReturn(true);
+        registry = new UserRevocationRegistry(userQueryRepository, jwtUtil);
+    }
+
+    @Test
+    void testChangesDuringRefreshAreKept() {
+        registry.statusChanged(7L, Status.CLOSED);
+        // The query reads before user 5 is closed and user 7 reactivated, and returns after
+        when(userQueryRepository.findIdsByStatusNot(Status.ACTIVE)).thenAnswer(invocation -> {
+            registry.statusChanged(5L, Status.CLOSED);
+            registry.statusChanged(7L, Status.ACTIVE);
+            return List.of(7L, 9L);
+        });
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(5L));
+        assertFalse(registry.isRevoked(7L));
+        assertTrue(registry.isRevoked(9L));
+    }
+
+    @Test
+    void testRefreshDropsUsersReactivatedElsewhere() {
+        when(userQueryRepository.findIdsByStatusNot(Status.ACTIVE)).thenReturn(List.of(3L));
+        registry.refresh();
+        when(userQueryRepository.findIdsByStatusNot(Status.ACTIVE)).thenReturn(List.of());
+
+        registry.refresh();
+
+        assertFalse(registry.isRevoked(3L));
+    }
+}
@@ -0,0 +1,149 @@
+package com.netbanking.app.service;
+
+import com.banking.core.entity.Account;
+import com.banking.core.entity.Address;
+import com.banking.core.entity.Branch;
+import com.banking.core.entity.User;
+import com.banking.core.enums.AccountType;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.TransactionFailedException;
+import com.banking.core.repository.AccountRepository;
+import com.banking.core.repository.BranchRepository;
+import com.banking.core.repository.TransactionRepository;
+import com.banking.core.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers a handful of accounts with cross transfers from many threads and
+ * checks that nothing deadlocks, no update is lost and money is conserved.
+ */
+// Far more is moved than the default daily limit allows; this test is about consistency, not limits
+@SpringBootTest(properties = "banking.transaction.max-daily-limit=100000000.00")
+@ActiveProfiles("test")
+class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 250;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("5000.00");
+
+    @Autowired
+    private AccountOperationsService accountOperationsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Address address = new Address("1 Bank St", "Test City", "TS", "12345", "USA");
+        Branch branch = branchRepository.save(new Branch("Test Branch", "TEST0000001", address));
+
+        User user = new User();
+        user.setFirstName("Load");
+        user.setLastName("Test");
+        user.setEmail("load@bank.com");
+        user.setMobile("+1-555-0199");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setPasswordHash("unused");
+        user.setRole("ROLE_USER");
+        user.setAddress(address);
+        userRepository.save(user);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account("12340100000000010" + i, AccountType.SAVINGS, user, branch);
+            account.setBalance(OPENING_BALANCE);
+            accountRepository.save(account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        branchRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentCrossTransfersConserveMoney() throws Exception {
+        Map<String, BigDecimal> expectedDeltas = new ConcurrentHashMap<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 500), 2).add(BigDecimal.TEN);
+                    String fromNumber = accountNumbers.get(from);
+                    String toNumber = accountNumbers.get(to);
+                    try {
+                        accountOperationsService.transfer(fromNumber, null, toNumber, amount, "load test", null);
+                        expectedDeltas.merge(fromNumber, amount.negate(), BigDecimal::add);
+                        expectedDeltas.merge(toNumber, amount, BigDecimal::add);
+                        succeeded.incrementAndGet();
+                    } catch (TransactionFailedException e) {
+                        // Running an account dry is the only acceptable failure
+                        assertInstanceOf(InsufficientFundsException.class, e.getCause());
+                        insufficient.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "transfers did not finish (deadlock?)");
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, succeeded.get() + insufficient.get());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance();
+            BigDecimal expected = OPENING_BALANCE.add(expectedDeltas.getOrDefault(accountNumber, BigDecimal.ZERO));
+            assertEquals(0, expected.compareTo(balance), "lost update on " + accountNumber);
+            total = total.add(balance);
+        }
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+        assertEquals(succeeded.get(), transactionRepository.count());
+    }
+}
@@ -0,0 +1,108 @@
+package com.netbanking.app.service.impl;
+
+import com.banking.core.exception.BankingException;
+import com.netbanking.app.repository.DebitRow;
+import com.netbanking.app.repository.TransactionQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyDebitLimitsTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:30:00Z");
+
+    private final TransactionQueryRepository repository = mock(TransactionQueryRepository.class);
+    private final MutableClock clock = new MutableClock(NOW);
+    private final DailyDebitLimits limits = new DailyDebitLimits(repository, new BigDecimal("500.00"),
+            new BigDecimal("1000.00"), 100, clock);
+
+    @Test
+    void testSeedsOnceFromDatabaseAndEnforcesRollingTotal() {
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        when(repository.findDebitsSince(eq(1L), any())).thenReturn(List.of(
+                new DebitRow(now.minusHours(2), new BigDecimal("400.00")),
+                new DebitRow(now.minusHours(23), new BigDecimal("300.00"))));
+
+        assertTrue(limits.tryReserve(1L, new BigDecimal("300.00")));
+        assertFalse(limits.tryReserve(1L, new BigDecimal("0.01")));
+        verify(repository, times(1)).findDebitsSince(eq(1L), any());
+
+        // The 300.00 from 23 hours ago leaves the window
+        clock.advance(Duration.ofHours(1));
+        assertTrue(limits.tryReserve(1L, new BigDecimal("300.00")));
+        assertThrows(BankingException.class, () -> limits.reserve(1L, new BigDecimal("0.01")));
+    }
+
+    @Test
+    void testRolledBackDebitIsReleased() {
+        when(repository.findDebitsSince(eq(2L), any())).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(limits.tryReserve(2L, new BigDecimal("1000.00")));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(limits.tryReserve(2L, new BigDecimal("1000.00")));
+    }
+
+    @Test
+    void testSingleTransferLimit() {
+        limits.checkSingleTransfer(new BigDecimal("500.00"));
+        BankingException e = assertThrows(BankingException.class,
+                () -> limits.checkSingleTransfer(new BigDecimal("500.01")));
+        assertEquals("TRANSFER_LIMIT_EXCEEDED", e.getErrorCode());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
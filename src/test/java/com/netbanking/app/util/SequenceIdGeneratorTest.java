@@ -0,0 +1,183 @@
+package com.netbanking.app.util;
+
+import com.banking.core.enums.AccountType;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for SequenceIdGenerator
+ */
+class SequenceIdGeneratorTest {
+
+    // 2025-03-14T15:09:26.535Z
+    private static final long NOW = 1741964966535L;
+
+    @Test
+    void testFormatsMatchCoreGenerator() {
+        SequenceIdGenerator generator = new SequenceIdGenerator(7, () -> NOW, ZoneOffset.UTC);
+
+        assertEquals("TXN2503141509265357" + "00000", generator.generateTransactionId());
+        assertEquals("1234" + "02" + "2503141509" + "7000", generator.generateAccountNumber(AccountType.CURRENT));
+        assertEquals("LN2503" + "70000000", generator.generateLoanNumber());
+        assertEquals("POL2503" + "70000000", generator.generatePolicyNumber());
+        assertTrue(generator.generateCardNumber().matches("47\\d{14}"));
+    }
+
+    @Test
+    void testRunsAheadWhenTickIsExhausted() {
+        SequenceIdGenerator generator = new SequenceIdGenerator(0, () -> NOW, ZoneOffset.UTC);
+
+        // 1000 account numbers per minute per node; the next one borrows the following minute
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(generator.generateAccountNumber(AccountType.SAVINGS).startsWith("123401" + "2503141509"));
+        }
+        assertEquals("123401" + "2503141510" + "0000", generator.generateAccountNumber(AccountType.SAVINGS));
+    }
+
+    @Test
+    void testNeverRepeatsWhenClockGoesBackwards() {
+        long[] clock = {NOW};
+        SequenceIdGenerator generator = new SequenceIdGenerator(0, () -> clock[0], ZoneOffset.UTC);
+
+        String first = generator.generateTransactionId();
+        clock[0] = NOW - 5_000;
+        String second = generator.generateTransactionId();
+
+        assertTrue(second.compareTo(first) > 0);
+    }
+
+    @Test
+    void testIdsDoNotRepeatAcrossDaylightSavingFallBack() {
+        // Europe/London went from 01:59 BST back to 01:00 GMT at 2025-10-26T01:00Z
+        long fallBack = 1761440400000L;
+        assertThrows(IllegalArgumentException.class,
+                () -> new SequenceIdGenerator(0, () -> fallBack, ZoneId.of("Europe/London")));
+
+        long[] clock = {fallBack - 3_600_000};
+        SequenceIdGenerator generator = new SequenceIdGenerator(0, () -> clock[0], ZoneId.of("UTC"));
+        Set<String> issued = new HashSet<>();
+        String previous = "";
+        for (; clock[0] < fallBack + 3_600_000; clock[0] += 60_000) {
+            String accountNumber = generator.generateAccountNumber(AccountType.SAVINGS);
+            String transactionId = generator.generateTransactionId();
+            assertTrue(transactionId.compareTo(previous) > 0);
+            assertTrue(issued.add(accountNumber));
+            previous = transactionId;
+        }
+    }
+
+    @Test
+    void testRestartedGeneratorResumesAfterIssuedIds() {
+        long[] clock = {NOW};
+        SequenceIdGenerator first = new SequenceIdGenerator(7, () -> clock[0], ZoneOffset.UTC);
+        Set<String> issued = new HashSet<>();
+        // Run the account sequence a few minutes ahead of the clock, and the others a little way on
+        for (int i = 0; i < 3500; i++) {
+            issued.add(first.generateAccountNumber(i % 2 == 0 ? AccountType.SAVINGS : AccountType.CURRENT));
+        }
+        for (int i = 0; i < 100; i++) {
+            issued.add(first.generateTransactionId());
+            issued.add(first.generateLoanNumber());
+            issued.add(first.generatePolicyNumber());
+            issued.add(first.generateCardNumber());
+        }
+
+        // Same node, same minute, after a restart
+        SequenceIdGenerator second = new SequenceIdGenerator(7, () -> clock[0], ZoneOffset.UTC);
+        second.resumeAfter(new RecordedIds(issued));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(issued.add(second.generateAccountNumber(AccountType.SALARY)));
+            assertTrue(issued.add(second.generateTransactionId()));
+            assertTrue(issued.add(second.generateLoanNumber()));
+            assertTrue(issued.add(second.generatePolicyNumber()));
+            assertTrue(issued.add(second.generateCardNumber()));
+        }
+    }
+
+    @Test
+    void testUniqueAcrossThreads() throws Exception {
+        SequenceIdGenerator generator = new SequenceIdGenerator(3);
+        Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+        Set<String> cardNumbers = ConcurrentHashMap.newKeySet();
+        int threads = 16;
+        int perThread = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    transactionIds.add(generator.generateTransactionId());
+                    cardNumbers.add(generator.generateCardNumber());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, transactionIds.size());
+        assertEquals(threads * perThread, cardNumbers.size());
+    }
+
+    @Test
+    void testCardScrambleIsAPermutation() {
+        Set<Long> seen = new HashSet<>();
+        for (long value = 0; value < 100_000; value++) {
+            long scrambled = SequenceIdGenerator.scramble(value);
+            assertTrue(scrambled >= 0 && scrambled < 100_000_000_000_000L);
+            assertTrue(seen.add(scrambled));
+            assertEquals(value, SequenceIdGenerator.unscramble(scrambled));
+        }
+    }
+
+    /**
+     * IssuedIds over a set of ids, answering as IssuedIdReader's queries do
+     */
+    private record RecordedIds(Set<String> ids) implements IssuedIds {
+
+        @Override
+        public Optional<String> lastTransactionIdAfter(int nodeId, String after) {
+            return ids.stream().filter(id -> id.startsWith("TXN") && id.compareTo(after) > 0).max(Comparator.naturalOrder());
+        }
+
+        @Override
+        public Optional<String> lastAccountNumber(int nodeId) {
+            return ids.stream().filter(id -> id.startsWith("1234")).max(Comparator.comparing(id -> id.substring(6)));
+        }
+
+        @Override
+        public Optional<String> lastLoanNumber(int nodeId) {
+            return ids.stream().filter(id -> id.startsWith("LN")).max(Comparator.naturalOrder());
+        }
+
+        @Override
+        public Optional<String> lastPolicyNumber(int nodeId) {
+            return ids.stream().filter(id -> id.startsWith("POL")).max(Comparator.naturalOrder());
+        }
+
+        @Override
+        public Stream<String> cardNumbers(int nodeId) {
+            return ids.stream().filter(id -> id.startsWith("4" + nodeId) && id.length() == 16);
+        }
+    }
+}